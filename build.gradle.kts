@@ -2,6 +2,7 @@ plugins {
     id("java")
     alias(libs.plugins.maven.publish)
     alias(libs.plugins.spotless)
+    alias(libs.plugins.jmh)
 }
 
 group = "dev.kerman"
@@ -18,6 +19,8 @@ dependencies {
     testImplementation(libs.minestom.testing)
     testImplementation(platform(libs.junit.bom))
     testImplementation(libs.junit.jupiter)
+    jmh(libs.minestom)
+    jmh(libs.adventure)
 }
 
 tasks {
@@ -48,6 +51,15 @@ tasks {
     }
 }
 
+jmh {
+    jmhVersion.set(libs.versions.jmh.get())
+    // ./gradlew jmh -Pjmh.includes=Codec to run a subset
+    includes.add(findProperty("jmh.includes")?.toString() ?: ".*")
+    profilers.add("gc")
+    resultFormat.set("JSON")
+    resultsFile.set(layout.buildDirectory.file("results/jmh/results.json"))
+}
+
 spotless {
     format("misc") {
         target("*.gradle.kts", ".gitignore")
@@ -0,0 +1,121 @@
+package dev.kerman.freight.benchmark;
+
+import dev.kerman.freight.BungeeClient;
+import dev.kerman.freight.BungeeRequest;
+import dev.kerman.freight.BungeeResponse;
+import net.minestom.server.MinecraftServer;
+import net.minestom.server.entity.Player;
+import net.minestom.server.event.player.PlayerPluginMessageEvent;
+import net.minestom.server.network.packet.server.SendablePacket;
+import net.minestom.server.network.player.GameProfile;
+import net.minestom.server.network.player.PlayerConnection;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parks a virtual thread per blocking query until every query is waiting, then answers them all.
+ * <p>
+ * The {@code heapBytesPerQuery} counter is the heap retained per parked query, measured after a full GC once they are
+ * all waiting, which stays flat as the number of queries grows since a parked virtual thread only keeps its stack.
+ * The time is what it takes to park and wake every thread.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class BlockingQueryBenchmark {
+    @Param({"1000", "10000", "100000"})
+    int queries;
+
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    private BungeeClient client;
+    private Player player;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        MinecraftServer.init();
+        player = new Player(new DiscardingConnection(), new GameProfile(UUID.randomUUID(), "carrier"));
+    }
+
+    @Setup(Level.Invocation)
+    public void open() {
+        client = BungeeClient.builder().timeout(Duration.ofMinutes(1)).build();
+    }
+
+    @TearDown(Level.Invocation)
+    public void close() {
+        client.close();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        MinecraftServer.stopCleanly();
+    }
+
+    @Benchmark
+    public void parkAndAnswer(Heap heap) throws InterruptedException {
+        final Thread[] threads = new Thread[queries];
+        System.gc();
+        final long before = memory.getHeapMemoryUsage().getUsed();
+        for (int i = 0; i < queries; i++) {
+            // Distinct servers, so every query is really outstanding instead of coalesced
+            final BungeeRequest.PlayerCount query = new BungeeRequest.PlayerCount("server-" + i);
+            threads[i] = Thread.ofVirtual().start(() -> {
+                try {
+                    client.query(player, query, Duration.ofMinutes(1));
+                } catch (Exception exception) {
+                    throw new IllegalStateException(exception);
+                }
+            });
+        }
+        while (client.pending() < queries) Thread.sleep(1);
+        System.gc();
+        heap.heapBytesPerQuery = (memory.getHeapMemoryUsage().getUsed() - before) / queries;
+        for (int i = 0; i < queries; i++) {
+            final byte[] response = new BungeeResponse.PlayerCount("server-" + i, i).toClientPacket().data();
+            client.eventNode().call(new PlayerPluginMessageEvent(player, "BungeeCord", response));
+        }
+        for (Thread thread : threads) thread.join();
+    }
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Heap {
+        public long heapBytesPerQuery;
+    }
+
+    static final class DiscardingConnection extends PlayerConnection {
+        private static final SocketAddress ADDRESS = InetSocketAddress.createUnresolved("localhost", 25565);
+
+        @Override
+        public void sendPacket(SendablePacket packet) {
+        }
+
+        @Override
+        public SocketAddress getRemoteAddress() {
+            return ADDRESS;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package dev.kerman.freight.benchmark;
+
+import dev.kerman.freight.BungeeMessage;
+import dev.kerman.freight.BungeeRequest;
+import net.minestom.server.network.ConnectionState;
+import net.minestom.server.network.NetworkBuffer;
+import net.minestom.server.network.packet.server.CachedPacket;
+import net.minestom.server.network.packet.server.SendablePacket;
+import net.minestom.server.network.packet.server.common.PluginMessagePacket;
+import net.minestom.server.network.player.PlayerConnection;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares sending a message to every connection against broadcasting it.
+ * <p>
+ * The connections resolve the bytes of the packet like the socket connection does before writing them.
+ * Both stay O(n) in the audience, every connection is still written to, but {@code broadcast} encodes the packet once
+ * where {@code send} encodes it again for each connection, leaving only the write as its per connection cost.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BroadcastBenchmark {
+    @Param({"1", "10", "100", "1000"})
+    int audience;
+
+    private final BungeeMessage message = new BungeeRequest.Forward(BungeeMessage.ALL, "announcements", new byte[512]);
+    private List<FramingConnection> connections;
+
+    @Setup
+    public void setup() {
+        connections = new ArrayList<>(audience);
+        for (int i = 0; i < audience; i++) connections.add(new FramingConnection());
+    }
+
+    @Benchmark
+    public void send() {
+        for (PlayerConnection connection : connections) BungeeMessage.send(connection, message);
+    }
+
+    @Benchmark
+    public void broadcast() {
+        BungeeMessage.broadcast(connections, message);
+    }
+
+    static final class FramingConnection extends PlayerConnection {
+        private static final SocketAddress ADDRESS = InetSocketAddress.createUnresolved("localhost", 25565);
+        // Keeps the resolved bytes reachable so they can't be optimized away
+        Object written;
+
+        @Override
+        public void sendPacket(SendablePacket packet) {
+            written = switch (packet) {
+                case CachedPacket cached -> cached.body(ConnectionState.PLAY);
+                case PluginMessagePacket plugin -> NetworkBuffer.makeArray(PluginMessagePacket.SERIALIZER, plugin);
+                default -> throw new IllegalStateException("Unexpected packet: " + packet);
+            };
+        }
+
+        @Override
+        public SocketAddress getRemoteAddress() {
+            return ADDRESS;
+        }
+    }
+}
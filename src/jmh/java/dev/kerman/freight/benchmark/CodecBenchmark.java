@@ -0,0 +1,120 @@
+package dev.kerman.freight.benchmark;
+
+import dev.kerman.freight.BungeeMessage;
+import dev.kerman.freight.BungeeRequest;
+import dev.kerman.freight.BungeeResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encodes and decodes a typical message of every type of the protocol, requests and responses apart.
+ * <p>
+ * Run with the GC profiler, {@code gc.alloc.rate.norm} is the garbage made per message.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CodecBenchmark {
+    private static final UUID PLAYER = UUID.fromString("069a79f4-44e9-4726-a5be-fca90e38aaf5");
+
+    @State(Scope.Benchmark)
+    public static class Requests {
+        @Param({"Connect", "ConnectOther", "IP", "IPOther", "PlayerCount", "PlayerList", "GetServers", "Message",
+                "MessageRaw", "GetServer", "GetPlayerServer", "UUID", "UUIDOther", "ServerIp", "KickPlayer",
+                "KickPlayerRaw", "Forward", "ForwardToPlayer"})
+        String type;
+
+        BungeeRequest request;
+        byte[] bytes;
+
+        @Setup
+        public void setup() {
+            request = switch (type) {
+                case "Connect" -> new BungeeRequest.Connect("lobby");
+                case "ConnectOther" -> new BungeeRequest.ConnectOther("Notch", "lobby");
+                case "IP" -> new BungeeRequest.IP();
+                case "IPOther" -> new BungeeRequest.IPOther("Notch");
+                case "PlayerCount" -> new BungeeRequest.PlayerCount("lobby");
+                case "PlayerList" -> new BungeeRequest.PlayerList("lobby");
+                case "GetServers" -> new BungeeRequest.GetServers();
+                case "Message" -> new BungeeRequest.Message("Notch", "Welcome back!");
+                case "MessageRaw" -> new BungeeRequest.MessageRaw("Notch", "{\"text\":\"Welcome back!\"}");
+                case "GetServer" -> new BungeeRequest.GetServer();
+                case "GetPlayerServer" -> new BungeeRequest.GetPlayerServer("Notch");
+                case "UUID" -> new BungeeRequest.UUID();
+                case "UUIDOther" -> new BungeeRequest.UUIDOther("Notch");
+                case "ServerIp" -> new BungeeRequest.ServerIP("lobby");
+                case "KickPlayer" -> new BungeeRequest.KickPlayer("Notch", "Server restarting");
+                case "KickPlayerRaw" -> new BungeeRequest.KickPlayerRaw("Notch", "{\"text\":\"Server restarting\"}");
+                case "Forward" -> new BungeeRequest.Forward(BungeeMessage.ALL, "sync", new byte[256]);
+                case "ForwardToPlayer" -> new BungeeRequest.ForwardToPlayer("Notch", "sync", new byte[256]);
+                default -> throw new IllegalArgumentException("Unknown type: " + type);
+            };
+            bytes = BungeeMessage.writeRequest(request);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Responses {
+        @Param({"IP", "IPOther", "PlayerCount", "PlayerList", "GetServers", "GetServer", "GetPlayerServer", "UUID",
+                "UUIDOther", "ServerIp", "Forward"})
+        String type;
+
+        BungeeResponse response;
+        byte[] bytes;
+
+        @Setup
+        public void setup() {
+            response = switch (type) {
+                case "IP" -> new BungeeResponse.IP("127.0.0.1", 25565);
+                case "IPOther" -> new BungeeResponse.IPOther("Notch", "127.0.0.1", 25565);
+                case "PlayerCount" -> new BungeeResponse.PlayerCount("lobby", 120);
+                case "PlayerList" -> new BungeeResponse.PlayerList("lobby", List.of("Notch", "jeb_", "Dinnerbone"));
+                case "GetServers" -> new BungeeResponse.GetServers(List.of("lobby", "survival", "creative", "minigames"));
+                case "GetServer" -> new BungeeResponse.GetServer("lobby");
+                case "GetPlayerServer" -> new BungeeResponse.GetPlayerServer("Notch", "lobby");
+                case "UUID" -> new BungeeResponse.UUID(PLAYER);
+                case "UUIDOther" -> new BungeeResponse.UUIDOther("Notch", PLAYER);
+                case "ServerIp" -> new BungeeResponse.ServerIP("lobby", "10.0.0.2", 25565);
+                case "Forward" -> new BungeeResponse.Forward("sync", new byte[256]);
+                default -> throw new IllegalArgumentException("Unknown type: " + type);
+            };
+            bytes = BungeeMessage.writeResponse(response);
+        }
+    }
+
+    @Benchmark
+    public byte[] encodeRequest(Requests state) {
+        return BungeeMessage.writeRequest(state.request);
+    }
+
+    @Benchmark
+    public BungeeRequest decodeRequest(Requests state) {
+        return BungeeMessage.readRequest(state.bytes);
+    }
+
+    @Benchmark
+    public byte[] encodeResponse(Responses state) {
+        return BungeeMessage.writeResponse(state.response);
+    }
+
+    @Benchmark
+    public BungeeResponse decodeResponse(Responses state) {
+        return BungeeMessage.readResponse(state.bytes);
+    }
+}
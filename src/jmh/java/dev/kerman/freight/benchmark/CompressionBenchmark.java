@@ -0,0 +1,79 @@
+package dev.kerman.freight.benchmark;
+
+import dev.kerman.freight.BungeeMessage;
+import dev.kerman.freight.ForwardChannel;
+import net.minestom.server.network.NetworkBuffer;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares encoding forwards as is against compressing them, for payloads of growing size.
+ * <p>
+ * The time per operation divided by the size gives the CPU cost per byte, while the byte counters
+ * give the bytes sent on the proxy link, so the bytes saved are {@code rawBytes - sentBytes}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompressionBenchmark {
+    @Param({"64", "512", "4096", "32768"})
+    int size;
+
+    private final ForwardChannel<byte[]> raw = new ForwardChannel<>("sync", NetworkBuffer.RAW_BYTES);
+    private final ForwardChannel<byte[]> compressed = raw.compressed(256);
+    private byte[] payload;
+
+    @Setup
+    public void setup() {
+        // JSON-ish sync blob, repetitive keys with varying values
+        final StringBuilder builder = new StringBuilder(size + 64);
+        for (int i = 0; builder.length() < size; i++)
+            builder.append("{\"uuid\":\"").append(Integer.toHexString(i * 0x9E3779B9)).append("\",\"coins\":").append(i % 1000).append("},");
+        payload = builder.substring(0, size).getBytes();
+    }
+
+    @Benchmark
+    public byte[] encodeRaw(Bytes bytes) {
+        return bytes.count(payload.length, raw.forward(BungeeMessage.ALL, payload).data());
+    }
+
+    @Benchmark
+    public byte[] encodeCompressed(Bytes bytes) {
+        return bytes.count(payload.length, compressed.forward(BungeeMessage.ALL, payload).data());
+    }
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Bytes {
+        public long rawBytes;
+        public long sentBytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            rawBytes = 0;
+            sentBytes = 0;
+        }
+
+        byte[] count(int raw, byte[] sent) {
+            rawBytes += raw;
+            sentBytes += sent.length;
+            return sent;
+        }
+    }
+}
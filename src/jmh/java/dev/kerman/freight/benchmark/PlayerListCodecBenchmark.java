@@ -0,0 +1,73 @@
+package dev.kerman.freight.benchmark;
+
+import dev.kerman.freight.BungeeMessage;
+import dev.kerman.freight.BungeeResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decodes and encodes the CSV list of a {@link BungeeResponse.PlayerList} with a growing number of players.
+ * <p>
+ * The list is a single string of at most 65535 bytes, so the largest list has short names to fit.
+ * {@code decode} only finds the commas, {@code decodeAndRead} also creates the name of every player.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlayerListCodecBenchmark {
+    @Param({"10", "100", "1000", "10000"})
+    int players;
+
+    private BungeeResponse.PlayerList decoded;
+    private BungeeResponse.PlayerList created;
+    private byte[] bytes;
+
+    @Setup
+    public void setup() {
+        final List<String> names = new ArrayList<>(players);
+        // Up to 5 characters and a comma per player, 60000 bytes for the largest list
+        for (int i = 0; i < players; i++) names.add("p" + Integer.toString(i, 36));
+        created = new BungeeResponse.PlayerList("lobby", names);
+        bytes = BungeeMessage.writeResponse(created);
+        decoded = (BungeeResponse.PlayerList) BungeeMessage.readResponse(bytes);
+    }
+
+    @Benchmark
+    public BungeeResponse decode() {
+        return BungeeMessage.readResponse(bytes);
+    }
+
+    @Benchmark
+    public void decodeAndRead(Blackhole blackhole) {
+        final BungeeResponse.PlayerList response = (BungeeResponse.PlayerList) BungeeMessage.readResponse(bytes);
+        for (String name : response.playerNameList()) blackhole.consume(name);
+    }
+
+    @Benchmark
+    public byte[] encodeCreated() {
+        return BungeeMessage.writeResponse(created);
+    }
+
+    @Benchmark
+    public byte[] encodeDecoded() {
+        // Relayed lists are written back from their bytes
+        return BungeeMessage.writeResponse(decoded);
+    }
+}
@@ -0,0 +1,53 @@
+package dev.kerman.freight.benchmark;
+
+import dev.kerman.freight.BungeeMessage;
+import dev.kerman.freight.BungeeResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parses and writes the dashless hex UUIDs of the protocol, against parsing them through a String like the JDK would.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UUIDCodecBenchmark {
+    private final UUID uuid = UUID.fromString("069a79f4-44e9-4726-a5be-fca90e38aaf5");
+    private final BungeeResponse.UUID response = new BungeeResponse.UUID(uuid);
+    private final String hex = uuid.toString().replace("-", "");
+    private byte[] bytes;
+
+    @Setup
+    public void setup() {
+        bytes = BungeeMessage.writeResponse(response);
+    }
+
+    @Benchmark
+    public BungeeResponse decode() {
+        return BungeeMessage.readResponse(bytes);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return BungeeMessage.writeResponse(response);
+    }
+
+    @Benchmark
+    public UUID parseString() {
+        return new UUID(Long.parseUnsignedLong(hex, 0, 16, 16), Long.parseUnsignedLong(hex, 16, 32, 16));
+    }
+}
@@ -0,0 +1,202 @@
+package dev.kerman.freight;
+
+import net.minestom.server.entity.Player;
+import net.minestom.server.event.EventNode;
+import net.minestom.server.event.player.PlayerEvent;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiConsumer;
+
+/**
+ * Transfers payloads larger than a single forward between servers.
+ * <p>
+ * Payloads are split into fragments forwarded on a channel, and reassembled by the transfer of the target server,
+ * which acknowledges them back to the origin server. At most {@link Builder#window(int) a window} of fragments
+ * is unacknowledged at any time, so a large transfer doesn't flood the proxy connection of its carrier.
+ * Both servers need a transfer on the same channel, named after the server it runs on as known by the proxy.
+ * <p>
+ * Memory on the receiving side is bounded, a transfer larger than {@link Builder#maxTransferSize(int)},
+ * or which would make the transfers being reassembled exceed {@link Builder#maxReassemblyBytes(long)}, is aborted.
+ * The sending future is then completed exceptionally with an {@link IllegalStateException}, and with a
+ * {@link TimeoutException} if the target server stops acknowledging.
+ * <pre>
+ * {@code
+ * BulkTransfer transfer = BulkTransfer.builder("minigame:state", "lobby-1")
+ *         .receiver((origin, payload) -> System.out.println(origin + " sent " + payload.length + " bytes"))
+ *         .build();
+ * MinecraftServer.getGlobalEventHandler().addChild(transfer.eventNode());
+ *
+ * transfer.send(player, "game-3", state).thenRun(() -> player.sendMessage(Component.text("State handed off")));
+ * }
+ * </pre>
+ * The receiver is called on the thread handling the last fragment.
+ */
+public sealed interface BulkTransfer extends AutoCloseable permits BulkTransferImpl {
+    /**
+     * Creates a new builder for a transfer.
+     *
+     * @param channel    the forward channel carrying the fragments
+     * @param serverName the name of this server, as known by the proxy
+     * @return a new builder
+     * @throws NullPointerException if {@code channel} is null
+     * @throws NullPointerException if {@code serverName} is null
+     */
+    @Contract("_, _ -> new")
+    static Builder builder(String channel, String serverName) {
+        return new Builder(channel, serverName);
+    }
+
+    /**
+     * Sends the payload to a server, through the carrier.
+     *
+     * @param carrier    the player carrying the fragments
+     * @param serverName the server to send the payload to, not {@link BungeeMessage#ALL} nor {@link BungeeMessage#ONLINE}
+     * @param payload    the payload, which must not be modified until the transfer completes
+     * @return the future completed once every fragment is acknowledged
+     * @throws NullPointerException     if any argument is null
+     * @throws IllegalArgumentException if the server name targets several servers
+     * @throws IllegalStateException    if the transfer is closed
+     */
+    CompletableFuture<Void> send(Player carrier, String serverName, byte[] payload);
+
+    /**
+     * The number of payloads being sent.
+     *
+     * @return the number of outgoing transfers not completed yet
+     */
+    int pending();
+
+    /**
+     * The event node receiving the fragments and acknowledgements, you have to add it to your event handler.
+     *
+     * @return the event node of this transfer
+     */
+    EventNode<PlayerEvent> eventNode();
+
+    /**
+     * Closes the transfer, outgoing transfers are completed exceptionally with an {@link IllegalStateException}
+     * and the payloads being reassembled are dropped.
+     */
+    @Override
+    void close();
+
+    /**
+     * Builder for {@link BulkTransfer}.
+     */
+    final class Builder {
+        final String channel;
+        final String serverName;
+        @Nullable BiConsumer<String, byte[]> receiver;
+        int fragmentSize = 32 * 1024;
+        int window = 8;
+        Duration timeout = Duration.ofSeconds(10);
+        int maxTransferSize = 16 * 1024 * 1024;
+        long maxReassemblyBytes = 64 * 1024 * 1024;
+
+        Builder(String channel, String serverName) {
+            this.channel = Objects.requireNonNull(channel, "Channel cannot be null");
+            this.serverName = Objects.requireNonNull(serverName, "Server name cannot be null");
+        }
+
+        /**
+         * Sets the receiver of the payloads sent to this server, receiving the origin server and the payload.
+         * Without a receiver, incoming transfers are aborted.
+         *
+         * @param receiver the receiver of the payloads
+         * @return this builder
+         * @throws NullPointerException if {@code receiver} is null
+         */
+        @Contract("_ -> this")
+        public Builder receiver(BiConsumer<String, byte[]> receiver) {
+            this.receiver = Objects.requireNonNull(receiver, "Receiver cannot be null");
+            return this;
+        }
+
+        /**
+         * Sets the size of the fragments. Defaults to 32 KiB.
+         *
+         * @param size the size in bytes, between 1 and 61440, leaving room for the header of the fragment
+         * @return this builder
+         * @throws IllegalArgumentException if the size is out of bounds
+         */
+        @Contract("_ -> this")
+        public Builder fragmentSize(int size) {
+            if (size <= 0 || size > BulkTransferImpl.MAX_FRAGMENT_SIZE)
+                throw new IllegalArgumentException("Fragment size must be between 1 and %d".formatted(BulkTransferImpl.MAX_FRAGMENT_SIZE));
+            this.fragmentSize = size;
+            return this;
+        }
+
+        /**
+         * Sets how many fragments can be unacknowledged at once. Defaults to 8.
+         *
+         * @param window the number of fragments, must be positive
+         * @return this builder
+         * @throws IllegalArgumentException if the window is not positive
+         */
+        @Contract("_ -> this")
+        public Builder window(int window) {
+            if (window <= 0) throw new IllegalArgumentException("Window must be positive");
+            this.window = window;
+            return this;
+        }
+
+        /**
+         * Sets how long a transfer can go without progress before failing. Defaults to 10 seconds.
+         *
+         * @param timeout the timeout, must be positive
+         * @return this builder
+         * @throws IllegalArgumentException if the timeout is not positive
+         */
+        @Contract("_ -> this")
+        public Builder timeout(Duration timeout) {
+            Objects.requireNonNull(timeout, "Timeout cannot be null");
+            if (timeout.isNegative() || timeout.isZero()) throw new IllegalArgumentException("Timeout must be positive");
+            this.timeout = timeout;
+            return this;
+        }
+
+        /**
+         * Sets the largest payload this server accepts. Defaults to 16 MiB.
+         *
+         * @param size the size in bytes, must be positive
+         * @return this builder
+         * @throws IllegalArgumentException if the size is not positive
+         */
+        @Contract("_ -> this")
+        public Builder maxTransferSize(int size) {
+            if (size <= 0) throw new IllegalArgumentException("Transfer size must be positive");
+            this.maxTransferSize = size;
+            return this;
+        }
+
+        /**
+         * Sets how many bytes the payloads being reassembled can take in total. Defaults to 64 MiB.
+         *
+         * @param bytes the number of bytes, must be positive
+         * @return this builder
+         * @throws IllegalArgumentException if the number of bytes is not positive
+         */
+        @Contract("_ -> this")
+        public Builder maxReassemblyBytes(long bytes) {
+            if (bytes <= 0) throw new IllegalArgumentException("Reassembly bytes must be positive");
+            this.maxReassemblyBytes = bytes;
+            return this;
+        }
+
+        /**
+         * Builds the transfer.
+         *
+         * @return a new transfer
+         */
+        @Contract("-> new")
+        public BulkTransfer build() {
+            return new BulkTransferImpl(this);
+        }
+    }
+}
@@ -0,0 +1,306 @@
+package dev.kerman.freight;
+
+import net.minestom.server.entity.Player;
+import net.minestom.server.event.EventNode;
+import net.minestom.server.event.player.PlayerEvent;
+import net.minestom.server.network.NetworkBuffer;
+import net.minestom.server.network.packet.server.common.PluginMessagePacket;
+import net.minestom.server.network.player.PlayerConnection;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+final class BulkTransferImpl implements BulkTransfer {
+    static final int MAX_FRAGMENT_SIZE = 60 * 1024;
+    private static final Duration TIMEOUT_RESOLUTION = Duration.ofMillis(100);
+
+    private static final byte FRAGMENT = 0;
+    private static final byte ACK = 1;
+    private static final byte ABORT = 2;
+
+    private final ForwardChannel<Frame> channel;
+    private final String serverName;
+    private final @Nullable BiConsumer<String, byte[]> receiver;
+    private final int fragmentSize;
+    private final int window;
+    // Acknowledge every half window, so the sender can keep fragments in flight while the acknowledgement travels.
+    private final int ackInterval;
+    private final long timeoutNanos;
+    private final int maxTransferSize;
+    private final long maxReassemblyBytes;
+    private final TimeoutWheel wheel;
+    private final ForwardRouter router;
+    private final AtomicLong nextId = new AtomicLong(ThreadLocalRandom.current().nextLong());
+    private final Map<Long, Outgoing> outgoing = new ConcurrentHashMap<>();
+    private final Map<IncomingKey, Incoming> incoming = new ConcurrentHashMap<>();
+    private final AtomicLong reassemblyBytes = new AtomicLong();
+    private volatile boolean closed;
+
+    BulkTransferImpl(BulkTransfer.Builder builder) {
+        this.channel = new ForwardChannel<>(builder.channel, FRAME);
+        this.serverName = builder.serverName;
+        this.receiver = builder.receiver;
+        this.fragmentSize = builder.fragmentSize;
+        this.window = builder.window;
+        this.ackInterval = Math.max(1, builder.window / 2);
+        this.timeoutNanos = builder.timeout.toNanos();
+        this.maxTransferSize = builder.maxTransferSize;
+        this.maxReassemblyBytes = builder.maxReassemblyBytes;
+        // Timeouts only guard against stalled transfers, they don't need to be precise.
+        final long buckets = Math.max(1, timeoutNanos / TIMEOUT_RESOLUTION.toNanos());
+        this.wheel = new TimeoutWheel("Freight-Transfer", TIMEOUT_RESOLUTION, (int) Math.min(buckets, 1 << 16));
+        this.router = ForwardRouter.builder().route(channel, this::onFrame).build();
+    }
+
+    @Override
+    public CompletableFuture<Void> send(Player carrier, String serverName, byte[] payload) {
+        Objects.requireNonNull(carrier, "Carrier cannot be null");
+        Objects.requireNonNull(serverName, "Server name cannot be null");
+        Objects.requireNonNull(payload, "Payload cannot be null");
+        if (BungeeMessage.ALL.equals(serverName) || BungeeMessage.ONLINE.equals(serverName))
+            throw new IllegalArgumentException("Transfers can only target a single server");
+        if (closed) throw new IllegalStateException("Transfer is closed");
+        final Outgoing transfer = new Outgoing(nextId.getAndIncrement(), carrier.getPlayerConnection(), serverName, payload);
+        outgoing.put(transfer.id, transfer);
+        transfer.future.whenComplete((_, _) -> {
+            outgoing.remove(transfer.id, transfer);
+            transfer.cancelTimeout();
+        });
+        transfer.progress(0);
+        return transfer.future;
+    }
+
+    @Override
+    public int pending() {
+        return outgoing.size();
+    }
+
+    @Override
+    public EventNode<PlayerEvent> eventNode() {
+        return router.eventNode();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        wheel.close();
+        for (Outgoing transfer : outgoing.values())
+            transfer.future.completeExceptionally(new IllegalStateException("Transfer closed"));
+        for (IncomingKey key : incoming.keySet()) drop(key);
+    }
+
+    private void onFrame(Player player, Frame frame) {
+        switch (frame) {
+            case Fragment fragment -> onFragment(player, fragment);
+            case Ack(long id, int received) -> {
+                final Outgoing transfer = outgoing.get(id);
+                if (transfer != null) transfer.progress(received);
+            }
+            case Abort(long id, String reason) -> {
+                final Outgoing transfer = outgoing.get(id);
+                if (transfer != null)
+                    transfer.future.completeExceptionally(new IllegalStateException("Transfer aborted by %s: %s".formatted(transfer.target, reason)));
+            }
+        }
+    }
+
+    private void onFragment(Player player, Fragment fragment) {
+        if (closed) return;
+        final IncomingKey key = new IncomingKey(fragment.origin, fragment.id);
+        Incoming transfer = incoming.get(key);
+        if (transfer == null) {
+            final String refusal = refusal(fragment);
+            if (refusal != null) {
+                reply(player, fragment.origin, new Abort(fragment.id, refusal));
+                return;
+            }
+            transfer = new Incoming(key, fragment.total, fragment.length);
+            final Incoming existing = incoming.putIfAbsent(key, transfer);
+            if (existing != null) {
+                reassemblyBytes.addAndGet(-fragment.length);
+                transfer = existing;
+            }
+        }
+        transfer.accept(player, fragment);
+    }
+
+    // Reserves the memory of a new incoming transfer, returns why it is refused otherwise
+    private @Nullable String refusal(Fragment fragment) {
+        if (receiver == null) return "no receiver";
+        if (fragment.length > maxTransferSize)
+            return "%d bytes is over the limit of %d".formatted(fragment.length, maxTransferSize);
+        if (fragment.total <= 0 || fragment.length < 0) return "malformed fragment";
+        // Fragments carry at least a byte, bounding the bitset of received fragments to an eighth of the payload
+        if (fragment.total > Math.max(1, fragment.length)) return "malformed fragment";
+        if (reassemblyBytes.addAndGet(fragment.length) > maxReassemblyBytes) {
+            reassemblyBytes.addAndGet(-fragment.length);
+            return "too many bytes being reassembled";
+        }
+        return null;
+    }
+
+    private void reply(Player player, String origin, Frame frame) {
+        final PluginMessagePacket packet = channel.forward(origin, frame);
+        Freight.send(player.getPlayerConnection(), BungeeProtocol.Type.Forward, packet, null);
+    }
+
+    private void drop(IncomingKey key) {
+        final Incoming transfer = incoming.remove(key);
+        if (transfer != null) reassemblyBytes.addAndGet(-transfer.payload.length);
+    }
+
+    private final class Outgoing {
+        final long id;
+        final PlayerConnection carrier;
+        final String target;
+        final byte[] payload;
+        final int total;
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+        private int sent;
+        private int acknowledged = -1;
+        private TimeoutWheel.@Nullable Timeout timeout;
+
+        Outgoing(long id, PlayerConnection carrier, String target, byte[] payload) {
+            this.id = id;
+            this.carrier = carrier;
+            this.target = target;
+            this.payload = payload;
+            // An empty payload is still sent as a single empty fragment
+            this.total = Math.max(1, (payload.length + fragmentSize - 1) / fragmentSize);
+        }
+
+        // Records the fragments acknowledged so far, and sends the next ones the window allows
+        synchronized void progress(int received) {
+            if (closed || future.isDone() || received <= acknowledged) return;
+            acknowledged = Math.min(received, total);
+            if (acknowledged == total) {
+                future.complete(null);
+                return;
+            }
+            cancelTimeout();
+            timeout = wheel.schedule(() -> future.completeExceptionally(
+                    new TimeoutException("Transfer to %s stalled at %d of %d fragments".formatted(target, acknowledged, total))), timeoutNanos);
+            while (sent < total && sent - acknowledged < window) {
+                final int offset = sent * fragmentSize;
+                final byte[] data = Arrays.copyOfRange(payload, offset, Math.min(payload.length, offset + fragmentSize));
+                final PluginMessagePacket packet = channel.forward(target, new Fragment(id, serverName, total, payload.length, sent, offset, data));
+                // The window bounds the fragments in flight, they are never dropped since none is ever sent again
+                Freight.send(carrier, BungeeProtocol.Type.Forward, packet, null);
+                sent++;
+            }
+        }
+
+        synchronized void cancelTimeout() {
+            final TimeoutWheel.Timeout timeout = this.timeout;
+            if (timeout != null) timeout.cancel();
+        }
+    }
+
+    private final class Incoming {
+        final IncomingKey key;
+        final int total;
+        final byte[] payload;
+        private final BitSet received = new BitSet();
+        private int acknowledged;
+        private TimeoutWheel.@Nullable Timeout timeout;
+
+        Incoming(IncomingKey key, int total, int length) {
+            this.key = key;
+            this.total = total;
+            this.payload = new byte[length];
+        }
+
+        synchronized void accept(Player player, Fragment fragment) {
+            if (closed) return;
+            if (fragment.total != total || fragment.length != payload.length || fragment.seq < 0 || fragment.seq >= total
+                    || fragment.offset < 0 || fragment.offset > payload.length - fragment.data.length) {
+                drop(key);
+                reply(player, key.origin, new Abort(key.id, "malformed fragment"));
+                return;
+            }
+            if (received.get(fragment.seq)) return;
+            received.set(fragment.seq);
+            System.arraycopy(fragment.data, 0, payload, fragment.offset, fragment.data.length);
+            final int contiguous = received.nextClearBit(0);
+            final boolean complete = contiguous == total;
+            if (complete || contiguous - acknowledged >= ackInterval) {
+                acknowledged = contiguous;
+                reply(player, key.origin, new Ack(key.id, contiguous));
+            }
+            if (timeout != null) timeout.cancel();
+            if (complete) {
+                drop(key);
+                Objects.requireNonNull(receiver).accept(key.origin, payload);
+            } else {
+                timeout = wheel.schedule(() -> drop(key), timeoutNanos);
+            }
+        }
+    }
+
+    private record IncomingKey(String origin, long id) {
+    }
+
+    private sealed interface Frame {
+    }
+
+    private record Fragment(long id, String origin, int total, int length, int seq, int offset,
+                            byte[] data) implements Frame {
+    }
+
+    private record Ack(long id, int received) implements Frame {
+    }
+
+    private record Abort(long id, String reason) implements Frame {
+    }
+
+    private static final NetworkBuffer.Type<Frame> FRAME = new NetworkBuffer.Type<>() {
+        @Override
+        public void write(NetworkBuffer buffer, Frame value) {
+            switch (value) {
+                case Fragment(long id, String origin, int total, int length, int seq, int offset, byte[] data) -> {
+                    buffer.write(NetworkBuffer.BYTE, FRAGMENT);
+                    buffer.write(NetworkBuffer.LONG, id);
+                    buffer.write(NetworkBuffer.STRING_IO_UTF8, origin);
+                    buffer.write(NetworkBuffer.VAR_INT, total);
+                    buffer.write(NetworkBuffer.VAR_INT, length);
+                    buffer.write(NetworkBuffer.VAR_INT, seq);
+                    buffer.write(NetworkBuffer.VAR_INT, offset);
+                    buffer.write(NetworkBuffer.RAW_BYTES, data);
+                }
+                case Ack(long id, int received) -> {
+                    buffer.write(NetworkBuffer.BYTE, ACK);
+                    buffer.write(NetworkBuffer.LONG, id);
+                    buffer.write(NetworkBuffer.VAR_INT, received);
+                }
+                case Abort(long id, String reason) -> {
+                    buffer.write(NetworkBuffer.BYTE, ABORT);
+                    buffer.write(NetworkBuffer.LONG, id);
+                    buffer.write(NetworkBuffer.STRING_IO_UTF8, reason);
+                }
+            }
+        }
+
+        @Override
+        public Frame read(NetworkBuffer buffer) {
+            final byte kind = buffer.read(NetworkBuffer.BYTE);
+            return switch (kind) {
+                case FRAGMENT -> new Fragment(buffer.read(NetworkBuffer.LONG), buffer.read(NetworkBuffer.STRING_IO_UTF8),
+                        buffer.read(NetworkBuffer.VAR_INT), buffer.read(NetworkBuffer.VAR_INT), buffer.read(NetworkBuffer.VAR_INT),
+                        buffer.read(NetworkBuffer.VAR_INT), buffer.read(NetworkBuffer.RAW_BYTES));
+                case ACK -> new Ack(buffer.read(NetworkBuffer.LONG), buffer.read(NetworkBuffer.VAR_INT));
+                case ABORT -> new Abort(buffer.read(NetworkBuffer.LONG), buffer.read(NetworkBuffer.STRING_IO_UTF8));
+                default -> throw new IllegalStateException("Unknown transfer frame %d".formatted(kind));
+            };
+        }
+    };
+}
@@ -0,0 +1,309 @@
+package dev.kerman.freight;
+
+import net.minestom.server.entity.Player;
+import net.minestom.server.event.EventNode;
+import net.minestom.server.event.player.PlayerEvent;
+import net.minestom.server.network.player.PlayerConnection;
+import org.jetbrains.annotations.Contract;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * BungeeCord request/response client.
+ * <p>
+ * Correlates {@link BungeeRequest.Query queries} with the {@link BungeeResponse responses} the proxy answers with.
+ * BungeeCord answers the requests of a connection in order, so the client keeps a FIFO queue of outstanding
+ * queries per connection and response type, completing the oldest query matching an incoming response.
+ * Queries that are not answered in time are completed exceptionally with a {@link TimeoutException},
+ * queries dropped or rejected by the {@link RateLimiter rate limiter} with an {@link IllegalStateException}.
+ * <p>
+ * When a carrier disconnects or switches server with queries outstanding, the queries whose answer does not depend on
+ * the carrier are sent again through another player online, picked by the {@link Freight#carrierSelector() carrier selector},
+ * and keep their original deadline, see {@link Builder#failover(boolean)}.
+ * The other queries, or all of them when no player is left, are completed exceptionally with an {@link IllegalStateException}.
+ * <p>
+ * Queries whose answer does not depend on the carrier, like {@link BungeeRequest.GetServers} or {@link BungeeRequest.PlayerCount},
+ * are coalesced: if an equal query is already in flight, no message is sent and the caller attaches to its response instead.
+ * <p>
+ * Responses can optionally be cached per type of query, see {@link Builder#cache(Class, Duration)},
+ * and player lookups answered from a directory, see {@link Builder#directory(int, Duration)}.
+ * <p>
+ * The client has to receive the plugin messages of the players, so you have to register its event node:
+ * <pre>
+ * {@code
+ * BungeeClient client = BungeeClient.create();
+ * MinecraftServer.getGlobalEventHandler().addChild(client.eventNode());
+ *
+ * client.request(player, new BungeeRequest.PlayerCount("lobby"))
+ *         .thenAccept(response -> System.out.println(response.playerCount()));
+ * }
+ * </pre>
+ * Futures may be completed on the timer thread or the thread handling the incoming plugin message,
+ * use the async variants of {@link CompletableFuture} if you need to do heavy work.
+ */
+public sealed interface BungeeClient extends AutoCloseable permits BungeeClientImpl {
+    /**
+     * Creates a new client using the default settings.
+     *
+     * @return a new client
+     */
+    @Contract("-> new")
+    static BungeeClient create() {
+        return builder().build();
+    }
+
+    /**
+     * Creates a new builder for a client.
+     *
+     * @return a new builder
+     */
+    @Contract("-> new")
+    static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Sends the query through the connection and returns the future response.
+     *
+     * @param connection the connection carrying the query
+     * @param query      the query to send
+     * @param <R>        the type of response
+     * @return the future completed with the response
+     * @throws NullPointerException  if {@code connection} is null
+     * @throws NullPointerException  if {@code query} is null
+     * @throws IllegalStateException if the client is closed
+     */
+    <R extends BungeeResponse> CompletableFuture<R> request(PlayerConnection connection, BungeeRequest.Query<R> query);
+
+    /**
+     * Sends the query through the player and returns the future response.
+     * <p>
+     * Shares any side effects with {@link #request(PlayerConnection, BungeeRequest.Query)}.
+     *
+     * @param carrier the player carrying the query
+     * @param query   the query to send
+     * @param <R>     the type of response
+     * @return the future completed with the response
+     * @throws NullPointerException  if {@code carrier} is null
+     * @throws NullPointerException  if {@code query} is null
+     * @throws IllegalStateException if the client is closed
+     */
+    default <R extends BungeeResponse> CompletableFuture<R> request(Player carrier, BungeeRequest.Query<R> query) {
+        Objects.requireNonNull(carrier, "Carrier cannot be null");
+        return request(carrier.getPlayerConnection(), query);
+    }
+
+    /**
+     * Sends the query through the connection and waits for its response.
+     * <p>
+     * Meant for virtual threads: the calling thread parks until the response arrives, without pinning its carrier thread,
+     * so a server can have as many queries waiting as it has virtual threads. Never call it from a tick thread,
+     * which would stop the ticks until the response arrives, the call fails fast there instead.
+     * Shares any side effects with {@link #request(PlayerConnection, BungeeRequest.Query)}.
+     *
+     * @param connection the connection carrying the query
+     * @param query      the query to send
+     * @param timeout    how long to wait for the response at most, on top of the timeout of the client
+     * @param <R>        the type of response
+     * @return the response
+     * @throws NullPointerException  if {@code connection} is null
+     * @throws NullPointerException  if {@code query} is null
+     * @throws NullPointerException  if {@code timeout} is null
+     * @throws IllegalStateException if called from a tick thread
+     * @throws IllegalStateException if the client is closed, the carrier disconnected before the query was answered,
+     *                               or the {@link RateLimiter rate limiter} dropped the query
+     * @throws TimeoutException      if the query wasn't answered in time
+     * @throws InterruptedException  if the thread was interrupted while waiting
+     */
+    <R extends BungeeResponse> R query(PlayerConnection connection, BungeeRequest.Query<R> query, Duration timeout)
+            throws TimeoutException, InterruptedException;
+
+    /**
+     * Sends the query through the player and waits for its response.
+     * <p>
+     * Shares any side effects with {@link #query(PlayerConnection, BungeeRequest.Query, Duration)}.
+     *
+     * @param carrier the player carrying the query
+     * @param query   the query to send
+     * @param timeout how long to wait for the response at most, on top of the timeout of the client
+     * @param <R>     the type of response
+     * @return the response
+     * @throws NullPointerException  if {@code carrier} is null
+     * @throws NullPointerException  if {@code query} is null
+     * @throws NullPointerException  if {@code timeout} is null
+     * @throws IllegalStateException if called from a tick thread
+     * @throws IllegalStateException if the client is closed, the carrier disconnected before the query was answered,
+     *                               or the {@link RateLimiter rate limiter} dropped the query
+     * @throws TimeoutException      if the query wasn't answered in time
+     * @throws InterruptedException  if the thread was interrupted while waiting
+     */
+    default <R extends BungeeResponse> R query(Player carrier, BungeeRequest.Query<R> query, Duration timeout)
+            throws TimeoutException, InterruptedException {
+        Objects.requireNonNull(carrier, "Carrier cannot be null");
+        return query(carrier.getPlayerConnection(), query, timeout);
+    }
+
+    /**
+     * The number of queries waiting for a response.
+     *
+     * @return the number of outstanding queries
+     */
+    int pending();
+
+    /**
+     * The event node receiving the responses, you have to add it to your event handler.
+     *
+     * @return the event node of this client
+     */
+    EventNode<PlayerEvent> eventNode();
+
+    /**
+     * Closes the client, outstanding queries are completed exceptionally with an {@link IllegalStateException}.
+     */
+    @Override
+    void close();
+
+    /**
+     * Builder for {@link BungeeClient}.
+     */
+    final class Builder {
+        Duration timeout = Duration.ofSeconds(5);
+        Duration timeoutResolution = Duration.ofMillis(10);
+        boolean failover = true;
+        final Map<BungeeProtocol.Type, Duration> cacheTtl = new EnumMap<>(BungeeProtocol.Type.class);
+        int cacheSize = 1024;
+        int directorySize;
+        Duration directoryTtl = Duration.ZERO;
+
+        Builder() {
+        }
+
+        /**
+         * Sets how long to wait for a response before failing the query. Defaults to 5 seconds.
+         *
+         * @param timeout the timeout, must be positive
+         * @return this builder
+         * @throws IllegalArgumentException if the timeout is not positive
+         */
+        @Contract("_ -> this")
+        public Builder timeout(Duration timeout) {
+            Objects.requireNonNull(timeout, "Timeout cannot be null");
+            if (timeout.isNegative() || timeout.isZero()) throw new IllegalArgumentException("Timeout must be positive");
+            this.timeout = timeout;
+            return this;
+        }
+
+        /**
+         * Sets the precision timeouts are checked with. Defaults to 10 milliseconds.
+         *
+         * @param resolution the resolution, must be positive
+         * @return this builder
+         * @throws IllegalArgumentException if the resolution is not positive
+         */
+        @Contract("_ -> this")
+        public Builder timeoutResolution(Duration resolution) {
+            Objects.requireNonNull(resolution, "Resolution cannot be null");
+            if (resolution.isNegative() || resolution.isZero())
+                throw new IllegalArgumentException("Resolution must be positive");
+            this.timeoutResolution = resolution;
+            return this;
+        }
+
+        /**
+         * Sets whether the queries of a carrier leaving are sent again through another player. Defaults to true.
+         * <p>
+         * Only the queries whose answer does not depend on the carrier fail over, {@link BungeeRequest.IP} and
+         * {@link BungeeRequest.UUID} fail with their carrier.
+         *
+         * @param failover whether to fail over
+         * @return this builder
+         */
+        @Contract("_ -> this")
+        public Builder failover(boolean failover) {
+            this.failover = failover;
+            return this;
+        }
+
+        /**
+         * Caches the responses to a type of query, answering equal queries from the cache while the response is live.
+         * <p>
+         * Once a cached response is past three quarters of its time to live, the next caller triggers a single refresh
+         * in the background, while it and every caller after it are still answered from the cache.
+         * Only {@link BungeeRequest.GetServers}, {@link BungeeRequest.ServerIP}, {@link BungeeRequest.PlayerCount}
+         * and {@link BungeeRequest.PlayerList} can be cached.
+         *
+         * @param type the type of query to cache
+         * @param ttl  how long a response stays live, must be positive
+         * @return this builder
+         * @throws IllegalArgumentException if the type of query can't be cached
+         * @throws IllegalArgumentException if the time to live is not positive
+         */
+        @Contract("_, _ -> this")
+        public Builder cache(Class<? extends BungeeRequest.Query<?>> type, Duration ttl) {
+            Objects.requireNonNull(type, "Type cannot be null");
+            Objects.requireNonNull(ttl, "Time to live cannot be null");
+            if (ttl.isNegative() || ttl.isZero()) throw new IllegalArgumentException("Time to live must be positive");
+            final BungeeProtocol.Type cached;
+            if (type == BungeeRequest.GetServers.class) cached = BungeeProtocol.Type.GetServers;
+            else if (type == BungeeRequest.ServerIP.class) cached = BungeeProtocol.Type.ServerIp;
+            else if (type == BungeeRequest.PlayerCount.class) cached = BungeeProtocol.Type.PlayerCount;
+            else if (type == BungeeRequest.PlayerList.class) cached = BungeeProtocol.Type.PlayerList;
+            else throw new IllegalArgumentException("%s responses cannot be cached".formatted(type.getSimpleName()));
+            this.cacheTtl.put(cached, ttl);
+            return this;
+        }
+
+        /**
+         * Sets how many responses can be cached, least recently used ones are evicted first. Defaults to 1024.
+         *
+         * @param size the maximum number of cached responses, must be positive
+         * @return this builder
+         * @throws IllegalArgumentException if the size is not positive
+         */
+        @Contract("_ -> this")
+        public Builder cacheSize(int size) {
+            if (size <= 0) throw new IllegalArgumentException("Cache size must be positive");
+            this.cacheSize = size;
+            return this;
+        }
+
+        /**
+         * Enables the player directory, remembering the players the proxy told us about.
+         * <p>
+         * The directory is filled from every {@link BungeeResponse.UUIDOther} and {@link BungeeResponse.IPOther}
+         * response received, and answers {@link BungeeRequest.UUIDOther} and {@link BungeeRequest.IPOther} queries
+         * locally while the answer is live.
+         * Players are removed from the directory when they disconnect from this server.
+         *
+         * @param size the maximum number of players, least recently used ones are evicted first
+         * @param ttl  how long an answer stays live, must be positive
+         * @return this builder
+         * @throws IllegalArgumentException if the size is not positive
+         * @throws IllegalArgumentException if the time to live is not positive
+         */
+        @Contract("_, _ -> this")
+        public Builder directory(int size, Duration ttl) {
+            Objects.requireNonNull(ttl, "Time to live cannot be null");
+            if (size <= 0) throw new IllegalArgumentException("Directory size must be positive");
+            if (ttl.isNegative() || ttl.isZero()) throw new IllegalArgumentException("Time to live must be positive");
+            this.directorySize = size;
+            this.directoryTtl = ttl;
+            return this;
+        }
+
+        /**
+         * Builds the client.
+         *
+         * @return a new client
+         */
+        @Contract("-> new")
+        public BungeeClient build() {
+            return new BungeeClientImpl(this);
+        }
+    }
+}
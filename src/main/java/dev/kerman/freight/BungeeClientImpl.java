@@ -0,0 +1,372 @@
+package dev.kerman.freight;
+
+import net.minestom.server.MinecraftServer;
+import net.minestom.server.entity.Player;
+import net.minestom.server.event.EventFilter;
+import net.minestom.server.event.EventNode;
+import net.minestom.server.event.player.PlayerDisconnectEvent;
+import net.minestom.server.event.player.PlayerEvent;
+import net.minestom.server.event.player.PlayerPluginMessageEvent;
+import net.minestom.server.network.NetworkBuffer;
+import net.minestom.server.network.player.PlayerConnection;
+import net.minestom.server.thread.TickThread;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+final class BungeeClientImpl implements BungeeClient {
+    private final long timeoutNanos;
+    private final boolean failover;
+    private final TimeoutWheel wheel;
+    private final Map<PlayerConnection, Carrier> carriers = new ConcurrentHashMap<>();
+    private final Map<BungeeRequest.Query<?>, CompletableFuture<?>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final @Nullable ResponseCache cache;
+    private final @Nullable PlayerDirectory directory;
+    private final EventNode<PlayerEvent> eventNode;
+    private volatile boolean closed;
+
+    BungeeClientImpl(BungeeClient.Builder builder) {
+        this.timeoutNanos = builder.timeout.toNanos();
+        this.failover = builder.failover;
+        // Enough buckets to cover the whole timeout in a single round.
+        final long buckets = Math.max(1, timeoutNanos / builder.timeoutResolution.toNanos());
+        this.wheel = new TimeoutWheel("Freight-Timeout", builder.timeoutResolution, (int) Math.min(buckets, 1 << 16));
+        this.cache = builder.cacheTtl.isEmpty() ? null : new ResponseCache(builder.cacheTtl, builder.cacheSize);
+        this.directory = builder.directorySize == 0 ? null : new PlayerDirectory(builder.directorySize, builder.directoryTtl);
+        this.eventNode = EventNode.type("freight-client", EventFilter.PLAYER);
+        eventNode.addListener(PlayerPluginMessageEvent.class, this::onMessage);
+        eventNode.addListener(PlayerDisconnectEvent.class, event -> {
+            if (directory != null) directory.invalidate(event.getPlayer().getUsername());
+            disconnect(event.getPlayer().getPlayerConnection());
+        });
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <R extends BungeeResponse> CompletableFuture<R> request(PlayerConnection connection, BungeeRequest.Query<R> query) {
+        Objects.requireNonNull(connection, "Connection cannot be null");
+        Objects.requireNonNull(query, "Query cannot be null");
+        if (closed) throw new IllegalStateException("Client is closed");
+        final PlayerDirectory directory = this.directory;
+        if (directory != null) {
+            final BungeeResponse answer = directory.answer(query);
+            if (answer != null) return CompletableFuture.completedFuture((R) answer);
+        }
+        final ResponseCache cache = this.cache;
+        if (cache != null && cache.cached(query)) {
+            final ResponseCache.Entry entry = cache.get(query);
+            if (entry != null) {
+                if (cache.claimRefresh(entry)) {
+                    fetch(connection, query).whenComplete((_, throwable) -> {
+                        if (throwable != null) cache.releaseRefresh(entry);
+                    });
+                }
+                return CompletableFuture.completedFuture((R) entry.response); // Keyed by an equal query
+            }
+        }
+        return fetch(connection, query);
+    }
+
+    @Override
+    public <R extends BungeeResponse> R query(PlayerConnection connection, BungeeRequest.Query<R> query, Duration timeout)
+            throws TimeoutException, InterruptedException {
+        Objects.requireNonNull(timeout, "Timeout cannot be null");
+        if (Thread.currentThread() instanceof TickThread)
+            throw new IllegalStateException("Blocking queries cannot be made from a tick thread");
+        final CompletableFuture<R> future = request(connection, query);
+        try {
+            // Parks through LockSupport, which unmounts a virtual thread instead of pinning it
+            return future.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException exception) {
+            // Thrown again from here, so the stack trace shows the caller
+            final Throwable cause = exception.getCause();
+            if (cause instanceof TimeoutException) {
+                final TimeoutException timedOut = new TimeoutException(cause.getMessage());
+                timedOut.initCause(cause);
+                throw timedOut;
+            }
+            throw new IllegalStateException(cause.getMessage(), cause);
+        } catch (TimeoutException | InterruptedException exception) {
+            // Only the copy of a shared query, the others attached still wait for it,
+            // the query itself otherwise, which leaves the queue of its carrier
+            future.cancel(false);
+            throw exception;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <R extends BungeeResponse> CompletableFuture<R> fetch(PlayerConnection connection, BungeeRequest.Query<R> query) {
+        final Pending<R> request = new Pending<>(query);
+        if (!shared(query)) {
+            // The caller owns the future, giving up on it has to free its place in the queue of its carrier
+            request.future.whenComplete((_, throwable) -> {
+                if (throwable instanceof CancellationException) abandon(request);
+            });
+            dispatch(connection, request);
+            return request.future;
+        }
+        // Equal queries have the same response type, so the cast is safe.
+        final CompletableFuture<R> inFlight = (CompletableFuture<R>) this.inFlight.putIfAbsent(query, request.future);
+        if (inFlight != null) return inFlight.copy();
+        request.future.whenComplete((_, _) -> this.inFlight.remove(query, request.future));
+        dispatch(connection, request);
+        // Copy so a caller cancelling its future doesn't cancel it for everyone attached.
+        return request.future.copy();
+    }
+
+    @Override
+    public int pending() {
+        return pending.get();
+    }
+
+    @Override
+    public EventNode<PlayerEvent> eventNode() {
+        return eventNode;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        wheel.close();
+        for (PlayerConnection connection : carriers.keySet()) disconnect(connection);
+    }
+
+    private void dispatch(PlayerConnection connection, Pending<?> request) {
+        pending(1);
+        final FreightEvents.RoundTrip roundTrip = new FreightEvents.RoundTrip();
+        if (roundTrip.isEnabled()) {
+            // Kept across failovers, like the deadline
+            roundTrip.begin();
+            request.roundTrip = roundTrip;
+        }
+        request.deadline = System.nanoTime() + timeoutNanos;
+        send(connection, request, timeoutNanos);
+    }
+
+    private void send(PlayerConnection connection, Pending<?> request, long timeoutNanos) {
+        final Carrier carrier = carriers.computeIfAbsent(connection, _ -> new Carrier());
+        request.carrier = carrier;
+        carrier.add(request);
+        request.timeout = wheel.schedule(() -> expire(carrier, request), timeoutNanos);
+        try {
+            Freight.send(connection, request.query, request.query.toPacket(), () -> fail(carrier, request,
+                    new IllegalStateException("%s was dropped by the rate limiter".formatted(request.query))));
+        } catch (RuntimeException exception) {
+            fail(carrier, request, exception); // Never sent, it would take the response of the next query of its type
+            throw exception;
+        }
+    }
+
+    // Reads the tag alone first, the body is only decoded when a query or the directory waits for its type.
+    private void onMessage(PlayerPluginMessageEvent event) {
+        if (!BungeeMessage.isIdentifier(event.getIdentifier())) return;
+        final Carrier carrier = carriers.get(event.getPlayer().getPlayerConnection());
+        // Nothing outstanding on this connection, but the directory wants to know about every player.
+        if (carrier == null && directory == null) return;
+        final byte[] message = event.getMessage();
+        final NetworkBuffer buffer = NetworkBuffer.wrap(message, 0, message.length);
+        final BungeeProtocol.Type type = buffer.read(BungeeProtocol.Type.RESPONSE_SERIALIZER);
+        if (type == BungeeProtocol.Type.Forward) return; // Never an answer to a query
+        final boolean recorded = directory != null && PlayerDirectory.records(type);
+        if (!recorded && (carrier == null || !carrier.awaits(type))) return;
+        // The listeners of Freight record their own decode of the types they listen to, don't record it twice
+        final BungeeResponse response = Freight.listens(type)
+                ? BungeeProtocol.decode(buffer, type.responseSerializer())
+                : BungeeProtocol.read(buffer, type.responseSerializer(), event.getPlayer().getPlayerConnection());
+        if (recorded) directory.record(response);
+        if (carrier == null) return;
+        final Pending<?> request = carrier.poll(type, response);
+        if (request == null) return;
+        pending(-1);
+        final long roundTrip = System.nanoTime() - (request.deadline - timeoutNanos);
+        MetricsImpl.INSTANCE.roundTrip(BungeeProtocol.Type.toType(request.query), roundTrip);
+        final FreightEvents.RoundTrip roundTripEvent = request.roundTrip;
+        if (roundTripEvent != null && roundTripEvent.shouldCommit())
+            roundTripEvent.complete(request.query, response, event.getPlayer().getPlayerConnection());
+        if (cache != null) cache.put(request.query, response);
+        request.complete(response);
+    }
+
+    private void pending(int delta) {
+        pending.addAndGet(delta);
+        MetricsImpl.INSTANCE.pendingQueries(delta);
+    }
+
+    // Left in the queue, a late response would answer it instead of the next query of the carrier
+    private void abandon(Pending<?> request) {
+        final Carrier carrier = request.carrier;
+        if (carrier == null || !carrier.remove(request)) return; // Answered, expired or failed over in the meantime
+        pending(-1);
+        final TimeoutWheel.Timeout timeout = request.timeout;
+        if (timeout != null) timeout.cancel();
+    }
+
+    // The query was dropped or couldn't be sent, no response is coming for it.
+    private void fail(Carrier carrier, Pending<?> request, Throwable cause) {
+        if (!carrier.remove(request)) return; // Expired or failed over in the meantime
+        pending(-1);
+        final TimeoutWheel.Timeout timeout = request.timeout;
+        if (timeout != null) timeout.cancel();
+        request.future.completeExceptionally(cause);
+    }
+
+    private void expire(Carrier carrier, Pending<?> request) {
+        if (!carrier.remove(request)) return; // Answered or failed over in the meantime
+        pending(-1);
+        request.future.completeExceptionally(new TimeoutException("No response to %s".formatted(request.query)));
+    }
+
+    private void disconnect(PlayerConnection connection) {
+        final Carrier carrier = carriers.remove(connection);
+        if (carrier == null) return;
+        List<Player> replacements = null;
+        for (Pending<?> request : carrier.drain()) {
+            if (failover && !closed && shared(request.query)) {
+                if (replacements == null) replacements = replacements(connection);
+                if (!replacements.isEmpty() && failover(replacements, request)) continue;
+            }
+            pending(-1);
+            request.cancel(new IllegalStateException("Carrier disconnected before %s was answered".formatted(request.query)));
+        }
+    }
+
+    // Sends the request again through another carrier, with what is left of its timeout.
+    private boolean failover(List<Player> replacements, Pending<?> request) {
+        if (!(Freight.carrierSelector().select(replacements) instanceof Player player)) return false;
+        final TimeoutWheel.Timeout timeout = request.timeout;
+        if (timeout != null && !timeout.cancel()) {
+            // Expired while being drained, it found nothing to remove and left the request to us
+            pending(-1);
+            request.future.completeExceptionally(new TimeoutException("No response to %s".formatted(request.query)));
+            return true;
+        }
+        send(player.getPlayerConnection(), request, request.deadline - System.nanoTime());
+        return true;
+    }
+
+    // The players still online which can carry the queries of the connection gone.
+    private static List<Player> replacements(PlayerConnection connection) {
+        final List<Player> replacements = new ArrayList<>();
+        for (Player player : MinecraftServer.getConnectionManager().getOnlinePlayers()) {
+            if (player.getPlayerConnection() != connection && player.isOnline()) replacements.add(player);
+        }
+        return replacements;
+    }
+
+    // Whether the answer doesn't depend on the carrier, identical queries in flight can then share a single response.
+    private static boolean shared(BungeeRequest.Query<?> query) {
+        return switch (query) {
+            case BungeeRequest.GetServers ignored -> true;
+            case BungeeRequest.PlayerCount ignored -> true;
+            case BungeeRequest.PlayerList ignored -> true;
+            case BungeeRequest.ServerIP ignored -> true;
+            case BungeeRequest.GetServer ignored -> true; // Every carrier is on this server
+            case BungeeRequest.UUIDOther ignored -> true;
+            case BungeeRequest.IPOther ignored -> true;
+            case BungeeRequest.GetPlayerServer ignored -> true;
+            case BungeeRequest.IP ignored -> false;
+            case BungeeRequest.UUID ignored -> false;
+        };
+    }
+
+    // Whether the response is the answer to the query, for the queries with an echoed key we can do better than FIFO.
+    private static boolean answers(BungeeRequest.Query<?> query, BungeeResponse response) {
+        return switch (query) {
+            case BungeeRequest.IPOther(String playerName) ->
+                    response instanceof BungeeResponse.IPOther other && playerName.equalsIgnoreCase(other.playerName());
+            case BungeeRequest.PlayerCount(String serverName) ->
+                    response instanceof BungeeResponse.PlayerCount other && serverName.equalsIgnoreCase(other.serverName());
+            case BungeeRequest.PlayerList(String serverName) ->
+                    response instanceof BungeeResponse.PlayerList other && serverName.equalsIgnoreCase(other.serverName());
+            case BungeeRequest.GetPlayerServer(String playerName) ->
+                    response instanceof BungeeResponse.GetPlayerServer other && playerName.equalsIgnoreCase(other.playerName());
+            case BungeeRequest.UUIDOther(String playerName) ->
+                    response instanceof BungeeResponse.UUIDOther other && playerName.equalsIgnoreCase(other.playerName());
+            case BungeeRequest.ServerIP(String serverName) ->
+                    response instanceof BungeeResponse.ServerIP other && serverName.equalsIgnoreCase(other.serverName());
+            case BungeeRequest.IP ignored -> true;
+            case BungeeRequest.GetServers ignored -> true;
+            case BungeeRequest.GetServer ignored -> true;
+            case BungeeRequest.UUID ignored -> true;
+        };
+    }
+
+    private static final class Pending<R extends BungeeResponse> {
+        final BungeeRequest.Query<R> query;
+        final CompletableFuture<R> future = new CompletableFuture<>();
+        volatile TimeoutWheel.@Nullable Timeout timeout;
+        volatile long deadline;
+        volatile @Nullable Carrier carrier;
+        volatile FreightEvents.@Nullable RoundTrip roundTrip;
+
+        Pending(BungeeRequest.Query<R> query) {
+            this.query = query;
+        }
+
+        @SuppressWarnings("unchecked")
+        void complete(BungeeResponse response) {
+            final TimeoutWheel.Timeout timeout = this.timeout;
+            if (timeout != null) timeout.cancel();
+            future.complete((R) response);
+        }
+
+        void cancel(Throwable cause) {
+            final TimeoutWheel.Timeout timeout = this.timeout;
+            if (timeout != null) timeout.cancel();
+            future.completeExceptionally(cause);
+        }
+    }
+
+    // The outstanding queries of a single connection, grouped by type.
+    private static final class Carrier {
+        private final Map<BungeeProtocol.Type, ArrayDeque<Pending<?>>> queues = new EnumMap<>(BungeeProtocol.Type.class);
+
+        synchronized void add(Pending<?> request) {
+            queues.computeIfAbsent(BungeeProtocol.Type.toType(request.query), _ -> new ArrayDeque<>()).add(request);
+        }
+
+        synchronized boolean awaits(BungeeProtocol.Type type) {
+            final ArrayDeque<Pending<?>> queue = queues.get(type);
+            return queue != null && !queue.isEmpty();
+        }
+
+        synchronized @Nullable Pending<?> poll(BungeeProtocol.Type type, BungeeResponse response) {
+            final ArrayDeque<Pending<?>> queue = queues.get(type);
+            if (queue == null) return null;
+            for (Iterator<Pending<?>> iterator = queue.iterator(); iterator.hasNext(); ) {
+                final Pending<?> request = iterator.next();
+                if (!answers(request.query, response)) continue;
+                iterator.remove();
+                return request;
+            }
+            return null;
+        }
+
+        synchronized boolean remove(Pending<?> request) {
+            final ArrayDeque<Pending<?>> queue = queues.get(BungeeProtocol.Type.toType(request.query));
+            return queue != null && queue.remove(request);
+        }
+
+        synchronized ArrayDeque<Pending<?>> drain() {
+            final ArrayDeque<Pending<?>> drained = new ArrayDeque<>();
+            for (ArrayDeque<Pending<?>> queue : queues.values()) drained.addAll(queue);
+            queues.clear();
+            return drained;
+        }
+    }
+}
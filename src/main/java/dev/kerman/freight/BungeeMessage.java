@@ -1,19 +1,17 @@
 package dev.kerman.freight;
 
 import net.kyori.adventure.audience.Audience;
+import net.minestom.server.entity.Player;
 import net.minestom.server.event.player.PlayerPluginMessageEvent;
 import net.minestom.server.network.NetworkBuffer;
 import net.minestom.server.network.packet.client.common.ClientPluginMessagePacket;
+import net.minestom.server.network.packet.server.CachedPacket;
 import net.minestom.server.network.packet.server.common.PluginMessagePacket;
 import net.minestom.server.network.player.PlayerConnection;
-import net.minestom.server.utils.PacketSendingUtils;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.List;
 import java.util.Objects;
 
 /**
@@ -27,7 +25,7 @@ import java.util.Objects;
  * <pre>
  * {@code
  *     Player player = ...;
- *     BungeeRequest request = new BungeeRequest.UUID();
+ *     BungeeRequest request = BungeeRequest.UUID.INSTANCE;
  *     request.send(connection);
  * }
  * </pre>
@@ -63,6 +61,8 @@ import java.util.Objects;
  * });
  * }
  * </pre>
+ * Or you can listen to a single type of response with {@link Freight#listen(Class, java.util.function.BiConsumer)},
+ * which only decodes the messages someone listens to, and each of them once.
  * Some notes about this class include attempting to hide all the serialization implementation behind the protocol,
  * We still expose all the serializers for the requests and responses in case you want to use them, but don't expect them
  * to be stable, but they will probably be stable as the messaging system is likely to not change.
@@ -129,7 +129,11 @@ public sealed interface BungeeMessage permits BungeeRequest, BungeeResponse {
     @Contract(pure = true)
     static byte[] writeRequest(BungeeRequest request) {
         Objects.requireNonNull(request, "Request cannot be null");
-        return NetworkBuffer.makeArray(BungeeRequest.SERIALIZER, request);
+        final FreightEvents.Encode event = new FreightEvents.Encode();
+        event.begin();
+        final byte[] bytes = NetworkBuffer.makeArray(BungeeRequest.SERIALIZER, request);
+        if (event.shouldCommit()) event.complete(BungeeProtocol.Type.toType(request), bytes.length);
+        return bytes;
     }
 
     /**
@@ -174,7 +178,11 @@ public sealed interface BungeeMessage permits BungeeRequest, BungeeResponse {
     @Contract(pure = true)
     static byte[] writeResponse(BungeeResponse response) {
         Objects.requireNonNull(response, "Response cannot be null");
-        return NetworkBuffer.makeArray(BungeeResponse.SERIALIZER, response);
+        final FreightEvents.Encode event = new FreightEvents.Encode();
+        event.begin();
+        final byte[] bytes = NetworkBuffer.makeArray(BungeeResponse.SERIALIZER, response);
+        if (event.shouldCommit()) event.complete(BungeeProtocol.Type.toType(response), bytes.length);
+        return bytes;
     }
 
     /**
@@ -211,6 +219,7 @@ public sealed interface BungeeMessage permits BungeeRequest, BungeeResponse {
      * <p>
      * A shorthand method to read the response from a player plugin message event, safe to use with incorrect identifier.
      * </p>
+     * <p>Envelopes of a {@link ForwardBatcher} are returned as is, see {@link BungeeResponse.Forward#unpack()}.</p>
      *
      * @param event the event to read the response from
      * @return the response, or null if the event is not a BungeeCord message
@@ -221,7 +230,9 @@ public sealed interface BungeeMessage permits BungeeRequest, BungeeResponse {
     static @Nullable BungeeResponse readResponse(PlayerPluginMessageEvent event) throws IllegalStateException {
         Objects.requireNonNull(event, "Event cannot be null");
         if (!isIdentifier(event.getIdentifier())) return null;
-        return readResponse(event.getMessage());
+        final byte[] message = event.getMessage();
+        return BungeeProtocol.read(NetworkBuffer.wrap(message, 0, message.length), BungeeResponse.SERIALIZER,
+                event.getPlayer().getPlayerConnection());
     }
 
     /**
@@ -239,7 +250,7 @@ public sealed interface BungeeMessage permits BungeeRequest, BungeeResponse {
     static void send(PlayerConnection connection, BungeeMessage message) {
         Objects.requireNonNull(connection, "Connection cannot be null");
         Objects.requireNonNull(message, "Message cannot be null");
-        connection.sendPacket(message.toPacket());
+        Freight.send(connection, message, message.toPacket());
     }
 
     /**
@@ -256,12 +267,48 @@ public sealed interface BungeeMessage permits BungeeRequest, BungeeResponse {
     static void send(Audience audience, BungeeMessage message) {
         Objects.requireNonNull(audience, "Audience cannot be null");
         Objects.requireNonNull(message, "Message cannot be null");
-        PacketSendingUtils.sendPacket(audience, message.toPacket());
+        Freight.send(audience, message, message.toPacket());
+    }
+
+    /**
+     * Broadcasts the message to every player of the specified audience.
+     * <p>
+     * Unlike {@link #send(Audience, BungeeMessage)} the packet is serialized and framed only once,
+     * the same bytes are then written to every connection. Prefer this method for large audiences.
+     * </p>
+     *
+     * @param audience the audience to broadcast the message to
+     * @param message  the message to broadcast
+     * @throws NullPointerException if {@code audience} is null
+     * @throws NullPointerException if {@code message} is null
+     */
+    static void broadcast(Audience audience, BungeeMessage message) {
+        Objects.requireNonNull(audience, "Audience cannot be null");
+        Objects.requireNonNull(message, "Message cannot be null");
+        Freight.broadcast(audience, message, new CachedPacket(message.toPacket()));
+    }
+
+    /**
+     * Broadcasts the message to the specified player connections.
+     * <p>
+     * The packet is serialized and framed only once, the same bytes are then written to every connection.
+     * </p>
+     *
+     * @param connections the player connections to broadcast the message to
+     * @param message     the message to broadcast
+     * @throws NullPointerException if {@code connections} is null
+     * @throws NullPointerException if {@code message} is null
+     */
+    static void broadcast(Collection<? extends PlayerConnection> connections, BungeeMessage message) {
+        Objects.requireNonNull(connections, "Connections cannot be null");
+        Objects.requireNonNull(message, "Message cannot be null");
+        final CachedPacket packet = new CachedPacket(message.toPacket());
+        for (PlayerConnection connection : connections) Freight.send(connection, message, packet);
     }
 
     /**
      * Sends the message to a single audience from a collection of audiences.
-     * <p>Shuffles the collection and sends the message to a random audience.</p>
+     * <p>The audience is picked by the {@link Freight#carrierSelector() carrier selector}, a random one by default.</p>
      * <br>
      * Inherent's any side effects of {@link BungeeMessage#send(Audience, BungeeMessage)}
      *
@@ -272,12 +319,28 @@ public sealed interface BungeeMessage permits BungeeRequest, BungeeResponse {
      * @throws IllegalArgumentException if the collection is empty
      */
     static void sendSingle(Collection<? extends Audience> audiences, BungeeMessage message) {
+        sendSingle(audiences, message, Freight.carrierSelector());
+    }
+
+    /**
+     * Sends the message to a single audience from a collection of audiences, picked by the selector.
+     * <br>
+     * Inherent's any side effects of {@link BungeeMessage#send(Audience, BungeeMessage)}
+     *
+     * @param audiences the collection of audiences to send the message to
+     * @param message   the message to send
+     * @param selector  the selector picking the audience
+     * @throws NullPointerException     if {@code audiences} is null
+     * @throws NullPointerException     if {@code message} is null
+     * @throws NullPointerException     if {@code selector} is null
+     * @throws IllegalArgumentException if the collection is empty
+     */
+    static void sendSingle(Collection<? extends Audience> audiences, BungeeMessage message, CarrierSelector selector) {
         Objects.requireNonNull(audiences, "Audiences cannot be null");
         Objects.requireNonNull(message, "Message cannot be null");
+        Objects.requireNonNull(selector, "Selector cannot be null");
         if (audiences.isEmpty()) throw new IllegalArgumentException("Audiences cannot be empty");
-        List<Audience> collection = new ArrayList<>(audiences);
-        Collections.shuffle(collection);
-        BungeeMessage.send(collection.getFirst(), message);
+        BungeeMessage.send(selector.select(audiences), message);
     }
 
     /**
@@ -298,6 +361,8 @@ public sealed interface BungeeMessage permits BungeeRequest, BungeeResponse {
      * <p>
      * This method is used to create messages to the client/proxy.
      * </p>
+     * <p>The packet may be shared, like the packets of {@link BungeeRequest.IP#INSTANCE} and the other constant requests,
+     * so its data must never be modified.</p>
      *
      * @return the plugin message packet containing the serialized message
      */
@@ -306,6 +371,26 @@ public sealed interface BungeeMessage permits BungeeRequest, BungeeResponse {
         return new PluginMessagePacket(BungeeProtocol.CHANNEL_LEGACY, write(this));
     }
 
+    /**
+     * Encodes the message once, so it can be sent many times without being serialized again.
+     * <p>
+     * Messages are immutable, so keep the handle around when you repeatedly send the same message.
+     * For example:
+     * <pre>
+     * {@code
+     *     static final BungeeMessage.Encoded LOBBY = new BungeeRequest.Connect("lobby").encoded();
+     *     ...
+     *     LOBBY.send(player);
+     * }
+     * </pre>
+     *
+     * @return the encoded message
+     */
+    @Contract("-> new")
+    default Encoded encoded() {
+        return new Encoded(this);
+    }
+
     /**
      * Sends the message to the specified player connection.
      * <p>
@@ -335,10 +420,24 @@ public sealed interface BungeeMessage permits BungeeRequest, BungeeResponse {
         BungeeMessage.send(audience, this);
     }
 
+    /**
+     * Broadcasts the message to every player of the specified audience.
+     * <p>
+     * The packet is serialized and framed only once, prefer this method over {@link #send(Audience)} for large audiences.
+     * </p>
+     *
+     * @param audience the audience to broadcast the message to
+     * @throws NullPointerException if {@code audience} is null
+     */
+    default void broadcast(Audience audience) {
+        Objects.requireNonNull(audience, "Audience cannot be null");
+        BungeeMessage.broadcast(audience, this);
+    }
+
     /**
      * Sends the message to a single audience from a collection of audiences.
      * <p>
-     * Shuffles the collection and sends the message to a random audience.
+     * The audience is picked by the {@link Freight#carrierSelector() carrier selector}, a random one by default.
      * </p>
      *
      * @param audiences the collection of audiences to send the message to
@@ -350,4 +449,111 @@ public sealed interface BungeeMessage permits BungeeRequest, BungeeResponse {
         if (audiences.isEmpty()) throw new IllegalArgumentException("Audiences cannot be empty");
         BungeeMessage.sendSingle(audiences, this);
     }
+
+    /**
+     * Sends the message to a single audience from a collection of audiences, picked by the selector.
+     *
+     * @param audiences the collection of audiences to send the message to
+     * @param selector  the selector picking the audience
+     * @throws NullPointerException     if {@code audiences} is null
+     * @throws NullPointerException     if {@code selector} is null
+     * @throws IllegalArgumentException if the collection is empty
+     */
+    default void sendSingle(Collection<? extends Audience> audiences, CarrierSelector selector) {
+        BungeeMessage.sendSingle(audiences, this, selector);
+    }
+
+    /**
+     * A {@link BungeeMessage} serialized once, see {@link BungeeMessage#encoded()}.
+     * <p>
+     * The packets are created once and shared between every send, the frame written to connections is cached too.
+     */
+    final class Encoded {
+        private final BungeeMessage message;
+        private final PluginMessagePacket packet;
+        private final ClientPluginMessagePacket clientPacket;
+        private final CachedPacket framed;
+
+        private Encoded(BungeeMessage message) {
+            this.message = Objects.requireNonNull(message, "Message cannot be null");
+            final byte[] data = BungeeMessage.write(message);
+            this.packet = new PluginMessagePacket(BungeeProtocol.CHANNEL_LEGACY, data);
+            this.clientPacket = new ClientPluginMessagePacket(BungeeProtocol.CHANNEL_LEGACY, data);
+            this.framed = new CachedPacket(packet);
+        }
+
+        /**
+         * The message that was encoded.
+         *
+         * @return the message
+         */
+        @Contract(pure = true)
+        public BungeeMessage message() {
+            return message;
+        }
+
+        /**
+         * The encoded message as a {@link PluginMessagePacket}, see {@link BungeeMessage#toPacket()}.
+         * <p>
+         * The packet and its data are shared by every send, the data must never be modified.
+         *
+         * @return the shared plugin message packet
+         */
+        @Contract(pure = true)
+        public PluginMessagePacket toPacket() {
+            return packet;
+        }
+
+        /**
+         * The encoded message as a {@link ClientPluginMessagePacket}, see {@link BungeeMessage#toClientPacket()}.
+         * <p>
+         * The packet and its data are shared by every send, the data must never be modified.
+         *
+         * @return the shared client plugin message packet
+         */
+        @Contract(pure = true)
+        public ClientPluginMessagePacket toClientPacket() {
+            return clientPacket;
+        }
+
+        /**
+         * Sends the encoded message to the specified player connection.
+         *
+         * @param connection the player connection to send the message to
+         * @throws NullPointerException if {@code connection} is null
+         */
+        public void send(PlayerConnection connection) {
+            Objects.requireNonNull(connection, "Connection cannot be null");
+            Freight.send(connection, message, framed);
+        }
+
+        /**
+         * Sends the encoded message to the specified audience.
+         *
+         * @param audience the audience to send the message
+         * @throws NullPointerException if {@code audience} is null
+         */
+        public void send(Audience audience) {
+            Objects.requireNonNull(audience, "Audience cannot be null");
+            if (audience instanceof Player player) Freight.send(player.getPlayerConnection(), message, framed);
+            else Freight.send(audience, message, packet, framed);
+        }
+
+        /**
+         * Broadcasts the encoded message to every player of the specified audience.
+         *
+         * @param audience the audience to broadcast the message to
+         * @throws NullPointerException if {@code audience} is null
+         * @see BungeeMessage#broadcast(Audience, BungeeMessage)
+         */
+        public void broadcast(Audience audience) {
+            Objects.requireNonNull(audience, "Audience cannot be null");
+            Freight.broadcast(audience, message, framed);
+        }
+
+        @Override
+        public String toString() {
+            return "Encoded[" + message + "]";
+        }
+    }
 }
@@ -1,9 +1,11 @@
 package dev.kerman.freight;
 
 import net.minestom.server.network.NetworkBuffer;
-import net.minestom.server.network.NetworkBufferTemplate;
+import net.minestom.server.network.player.PlayerConnection;
 import org.jetbrains.annotations.Nullable;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 import java.util.UUID;
@@ -21,16 +23,40 @@ final class BungeeProtocol {
     static final String ONLINE = "ONLINE";
     static final String CHANNEL_MODERN = "bungeecord:main";
     static final String CHANNEL_LEGACY = "BungeeCord";
-    static final NetworkBuffer.Type<List<String>> CSV_TYPE = NetworkBuffer.STRING_IO_UTF8.transform(
-            string -> List.of(string.split(",")),
-            stringList -> String.join(",", stringList)
-    );
+    // Read as a CsvList over the raw bytes, which is written back as is.
+    static final NetworkBuffer.Type<List<String>> CSV_TYPE = new NetworkBuffer.Type<>() {
+        @Override
+        public void write(NetworkBuffer buffer, List<String> value) {
+            if (value instanceof CsvList csv) csv.write(buffer);
+            else buffer.write(NetworkBuffer.STRING_IO_UTF8, String.join(",", value));
+        }
+
+        @Override
+        public List<String> read(NetworkBuffer buffer) {
+            return CsvList.parse(SHORT_BYTE_ARRAY_TYPE.read(buffer));
+        }
+    };
     // This type is awful, just to "save" 4 bytes.
-    static final NetworkBuffer.Type<UUID> UUID_TYPE = NetworkBuffer.STRING_IO_UTF8
-            .transform((string) -> new UUID(Long.parseUnsignedLong(string.substring(0, 16), 16),
-                            Long.parseUnsignedLong(string.substring(16, 32), 16)
-                    ),
-                    uuid -> uuid.toString().replace("-", "")); // TODO see if we can skip replace
+    // A STRING_IO_UTF8 of the 32 hex digits without dashes, parsed and written digit by digit to skip the Strings.
+    static final NetworkBuffer.Type<UUID> UUID_TYPE = new NetworkBuffer.Type<>() {
+        @Override
+        public void write(NetworkBuffer buffer, UUID value) {
+            buffer.write(NetworkBuffer.UNSIGNED_SHORT, 32);
+            writeHex(buffer, value.getMostSignificantBits());
+            writeHex(buffer, value.getLeastSignificantBits());
+        }
+
+        @Override
+        public UUID read(NetworkBuffer buffer) {
+            final int length = buffer.read(NetworkBuffer.UNSIGNED_SHORT);
+            if (length != 32) throw new IllegalStateException("UUID must be 32 characters, got %d".formatted(length));
+            if (length > buffer.readableBytes()) throw new IllegalStateException("Value too long to read");
+            final long mostSignificantBits = readHex(buffer);
+            final long leastSignificantBits = readHex(buffer);
+            return new UUID(mostSignificantBits, leastSignificantBits);
+        }
+    };
+    private static final byte[] HEX_DIGITS = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
     static final NetworkBuffer.Type<byte[]> SHORT_BYTE_ARRAY_TYPE = new NetworkBuffer.Type<>() {
         // Reminder that they use big endian for IO, so we should be good as the protocol uses it too
         @Override
@@ -50,15 +76,77 @@ final class BungeeProtocol {
         }
     };
 
+    private static void writeHex(NetworkBuffer buffer, long value) {
+        for (int shift = 60; shift >= 0; shift -= 4)
+            buffer.write(NetworkBuffer.BYTE, HEX_DIGITS[(int) (value >>> shift) & 0xF]);
+    }
+
+    private static long readHex(NetworkBuffer buffer) {
+        long value = 0;
+        for (int i = 0; i < 16; i++) {
+            final byte digit = buffer.read(NetworkBuffer.BYTE);
+            final int nibble;
+            if (digit >= '0' && digit <= '9') nibble = digit - '0';
+            else if (digit >= 'a' && digit <= 'f') nibble = digit - 'a' + 10;
+            else if (digit >= 'A' && digit <= 'F') nibble = digit - 'A' + 10;
+            else throw new IllegalStateException("Invalid hex digit in UUID: %d".formatted(digit));
+            value = value << 4 | nibble;
+        }
+        return value;
+    }
+
+    // Array handed off to the record constructor about to run on this thread, which takes ownership of it instead of
+    // cloning it. Records always go through their canonical constructor, so the ownership can't be an argument of it.
+    private static final ThreadLocal<byte @Nullable []> HANDOFF = new ThreadLocal<>();
+
     private BungeeProtocol() {
     }
 
+    // Hands off the array to the next claim on this thread, returns the handoff to restore once the record is built.
+    static byte @Nullable [] handoff(byte[] data) {
+        final byte[] previous = HANDOFF.get();
+        HANDOFF.set(data);
+        return previous;
+    }
+
+    static void restore(byte @Nullable [] previous) {
+        HANDOFF.set(previous);
+    }
+
+    // Takes ownership of the array if it was handed off, a single time, otherwise makes a defensive copy.
+    static byte[] claim(byte[] data) {
+        if (HANDOFF.get() != data) return data.clone();
+        HANDOFF.set(null);
+        return data;
+    }
+
     static boolean isIdentifier(@Nullable String channel) {
         return CHANNEL_LEGACY.equals(channel) || CHANNEL_MODERN.equals(channel);
     }
 
     // Reads the message from the buffer and checks if there are any leftover bytes
     static <T extends BungeeMessage> T read(NetworkBuffer buffer, NetworkBuffer.Type<T> type) throws IllegalStateException {
+        return read(buffer, type, null);
+    }
+
+    // The connection is the carrier the message came from, if known.
+    static <T extends BungeeMessage> T read(NetworkBuffer buffer, NetworkBuffer.Type<T> type,
+                                            @Nullable PlayerConnection connection) throws IllegalStateException {
+        final FreightEvents.Decode event = new FreightEvents.Decode();
+        event.begin();
+        final long size = buffer.readableBytes();
+        try {
+            final T read = decode(buffer, type);
+            if (event.shouldCommit()) event.complete(Type.toType(read), (int) size, connection);
+            return read;
+        } catch (IllegalStateException exception) {
+            MetricsImpl.INSTANCE.decodeFailed();
+            throw exception;
+        }
+    }
+
+    // Same as read, without recording the decode, for messages whose decode is recorded elsewhere.
+    static <T extends BungeeMessage> T decode(NetworkBuffer buffer, NetworkBuffer.Type<T> type) throws IllegalStateException {
         final T read = buffer.read(type);
         final long readableBytes = buffer.readableBytes();
         if (readableBytes > 0)
@@ -88,10 +176,19 @@ final class BungeeProtocol {
         ForwardToPlayer(BungeeRequest.ForwardToPlayer.SERIALIZER, BungeeResponse.Forward.SERIALIZER);
 
         // Always prefixed
-        public static final NetworkBuffer.Type<Type> REQUEST_SERIALIZER = NetworkBufferTemplate.template(
-                NetworkBuffer.STRING_IO_UTF8, Type::name,
-                Type::valueOf
-        );
+        public static final NetworkBuffer.Type<Type> REQUEST_SERIALIZER = new NetworkBuffer.Type<>() {
+            @Override
+            public void write(NetworkBuffer buffer, Type value) {
+                value.writeTag(buffer);
+            }
+
+            @Override
+            public Type read(NetworkBuffer buffer) {
+                final Type type = readTag(buffer, REQUEST_TAGS);
+                if (type == null) throw new IllegalStateException("Unknown request type");
+                return type;
+            }
+        };
 
         // Sometimes unprefixed, so we need to handle that.
         public static final NetworkBuffer.Type<Type> RESPONSE_SERIALIZER = new NetworkBuffer.Type<>() {
@@ -99,22 +196,40 @@ final class BungeeProtocol {
             public void write(NetworkBuffer buffer, Type value) {
                 if (value == Forward || value == ForwardToPlayer)
                     return; // These are unprefixed, so we don't write the name.
-                buffer.write(NetworkBuffer.STRING_IO_UTF8, value.name());
+                value.writeTag(buffer);
             }
 
             @Override
             public Type read(NetworkBuffer buffer) {
-                final long readIndex = buffer.readIndex();
-                try { // Try to determine if the type is prefixed or not.
-                    final String name = buffer.read(NetworkBuffer.STRING_IO_UTF8);
-                    return Type.valueOf(name);
-                } catch (IllegalArgumentException | IndexOutOfBoundsException ignored) {
-                    buffer.readIndex(readIndex);
-                }
-                return Type.Forward; // They are unprefixed YAY!
+                // Try to determine if the type is prefixed or not, the read index is left alone when it isn't.
+                final Type type = readTag(buffer, RESPONSE_TAGS);
+                return type != null ? type : Type.Forward; // They are unprefixed YAY!
             }
         };
 
+        // Tables of the tags, indexed by the length and first byte of the tag, which is unique for every type.
+        // Responses only know the prefixed types, so a Forward on a channel named after a type is still a Forward.
+        private static final int MAX_TAG_LENGTH;
+        private static final @Nullable Type[] REQUEST_TAGS;
+        private static final @Nullable Type[] RESPONSE_TAGS;
+
+        static {
+            int maxLength = 0;
+            for (Type type : values()) maxLength = Math.max(maxLength, type.tag.length);
+            MAX_TAG_LENGTH = maxLength;
+            REQUEST_TAGS = new Type[(maxLength + 1) << 7];
+            RESPONSE_TAGS = new Type[(maxLength + 1) << 7];
+            for (Type type : values()) {
+                final int slot = slot(type.tag.length, type.tag[0]);
+                if (REQUEST_TAGS[slot] != null)
+                    throw new ExceptionInInitializerError("%s and %s share a tag slot".formatted(type, REQUEST_TAGS[slot]));
+                REQUEST_TAGS[slot] = type;
+                if (type.responseSerializer != null && type != Forward && type != ForwardToPlayer)
+                    RESPONSE_TAGS[slot] = type;
+            }
+        }
+
+        private final byte[] tag = name().getBytes(StandardCharsets.UTF_8);
         private final NetworkBuffer.Type<? extends BungeeRequest> requestSerializer;
         private final NetworkBuffer.@Nullable Type<? extends BungeeResponse> responseSerializer;
 
@@ -123,6 +238,46 @@ final class BungeeProtocol {
             this.responseSerializer = responseSerializer;
         }
 
+        // Same wire format as STRING_IO_UTF8, without encoding the name every time.
+        private void writeTag(NetworkBuffer buffer) {
+            buffer.write(NetworkBuffer.UNSIGNED_SHORT, tag.length);
+            buffer.write(NetworkBuffer.RAW_BYTES, tag);
+        }
+
+        // Reads the tag straight from the bytes, without exceptions or an intermediate String.
+        // Returns null and leaves the read index alone if the bytes aren't a tag of the table.
+        private static @Nullable Type readTag(NetworkBuffer buffer, @Nullable Type[] table) {
+            final long start = buffer.readIndex();
+            final long readable = buffer.readableBytes();
+            if (readable < 2) return null;
+            final int length = buffer.read(NetworkBuffer.UNSIGNED_SHORT);
+            if (length == 0 || length > MAX_TAG_LENGTH || length > readable - 2) {
+                buffer.readIndex(start);
+                return null;
+            }
+            final byte first = buffer.read(NetworkBuffer.BYTE);
+            final Type type = table[slot(length, first)];
+            if (type != null && type.tag[0] == first) {
+                final byte[] tag = type.tag;
+                int index = 1;
+                while (index < length && buffer.read(NetworkBuffer.BYTE) == tag[index]) index++;
+                if (index == length) return type;
+            }
+            buffer.readIndex(start);
+            return null;
+        }
+
+        // True if a Forward on this channel would be read as a response of that type instead.
+        static boolean isResponseTag(byte[] channel) {
+            if (channel.length == 0 || channel.length > MAX_TAG_LENGTH) return false;
+            final Type type = RESPONSE_TAGS[slot(channel.length, channel[0])];
+            return type != null && Arrays.equals(type.tag, channel);
+        }
+
+        private static int slot(int length, byte first) {
+            return length << 7 | first & 0x7F;
+        }
+
         // Could probably use polymorphism here, but it makes the classes have less information about the serialization
         // See the entries in the regular ClientPacket and ServerPacket not caring about the id near the data structure.
         static Type toType(BungeeMessage message) {
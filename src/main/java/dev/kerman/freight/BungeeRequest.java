@@ -13,6 +13,7 @@ import net.minestom.server.network.packet.server.common.PluginMessagePacket;
 import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.Contract;
 
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.Objects;
 
@@ -29,6 +30,16 @@ public sealed interface BungeeRequest extends BungeeMessage {
     NetworkBuffer.Type<BungeeRequest> SERIALIZER = BungeeProtocol.Type.REQUEST_SERIALIZER
             .unionType(BungeeProtocol.Type::requestSerializer, BungeeProtocol.Type::toType);
 
+    /**
+     * A request the proxy answers with a response.
+     * <br>
+     * Queries can be correlated with their response using a {@link BungeeClient}.
+     *
+     * @param <R> the type of response the proxy answers with
+     */
+    sealed interface Query<R extends BungeeResponse> extends BungeeRequest {
+    }
+
     /**
      * Connects the sending audience to a server.
      *
@@ -79,9 +90,25 @@ public sealed interface BungeeRequest extends BungeeMessage {
     /**
      * Requests the IP address of the sending audience.
      */
-    record IP() implements BungeeRequest {
+    record IP() implements Query<BungeeResponse.IP> {
         @ApiStatus.Experimental
-        public static final NetworkBuffer.Type<IP> SERIALIZER = NetworkBufferTemplate.template(IP::new);
+        public static final NetworkBuffer.Type<IP> SERIALIZER = NetworkBufferTemplate.template(() -> IP.INSTANCE);
+
+        /**
+         * The {@link IP} request, every instance being equal to it.
+         */
+        public static final IP INSTANCE = new IP();
+
+        /**
+         * The packet of the request, encoded once and shared by every send, its data must never be modified.
+         *
+         * @return the plugin message packet of the request
+         */
+        @Override
+        @Contract(pure = true)
+        public PluginMessagePacket toPacket() {
+            return ConstantPackets.IP;
+        }
     }
 
     /**
@@ -89,7 +116,7 @@ public sealed interface BungeeRequest extends BungeeMessage {
      *
      * @param playerName The name
      */
-    record IPOther(String playerName) implements BungeeRequest {
+    record IPOther(String playerName) implements Query<BungeeResponse.IPOther> {
         @ApiStatus.Experimental
         public static final NetworkBuffer.Type<IPOther> SERIALIZER = NetworkBufferTemplate.template(
                 NetworkBuffer.STRING_IO_UTF8, IPOther::playerName,
@@ -117,13 +144,15 @@ public sealed interface BungeeRequest extends BungeeMessage {
      *
      * @param serverName Player count of that server (Defined in your proxy config) or ALL for all defined servers.
      */
-    record PlayerCount(String serverName) implements BungeeRequest {
+    record PlayerCount(String serverName) implements Query<BungeeResponse.PlayerCount> {
         @ApiStatus.Experimental
         public static final NetworkBuffer.Type<PlayerCount> SERIALIZER = NetworkBufferTemplate.template(
                 NetworkBuffer.STRING_IO_UTF8, PlayerCount::serverName,
                 PlayerCount::new
         );
 
+        private static final PlayerCount ALL_SERVERS = new PlayerCount(ALL);
+
         public PlayerCount {
             Objects.requireNonNull(serverName, "Server name cannot be null");
         }
@@ -133,11 +162,23 @@ public sealed interface BungeeRequest extends BungeeMessage {
          * <br>
          * Expect multiple responses if there is more than one server with players on it.
          *
-         * @return A {@link PlayerCount} request for all players.
+         * @return A {@link PlayerCount} request for all players, always the same instance.
+         */
+        @Contract(pure = true)
+        public static PlayerCount all() {
+            return ALL_SERVERS;
+        }
+
+        /**
+         * The packet of the request, encoded once and shared by every send for the {@link #all()} request,
+         * its data must never be modified.
+         *
+         * @return the plugin message packet of the request
          */
+        @Override
         @Contract(pure = true)
-        static PlayerCount all() {
-            return new PlayerCount(ALL);
+        public PluginMessagePacket toPacket() {
+            return serverName.equals(ALL) ? ConstantPackets.PLAYER_COUNT_ALL : Query.super.toPacket();
         }
     }
 
@@ -148,13 +189,15 @@ public sealed interface BungeeRequest extends BungeeMessage {
      *
      * @param serverName Player list of that server (Defined in your proxy config)
      */
-    record PlayerList(String serverName) implements BungeeRequest {
+    record PlayerList(String serverName) implements Query<BungeeResponse.PlayerList> {
         @ApiStatus.Experimental
         public static final NetworkBuffer.Type<PlayerList> SERIALIZER = NetworkBufferTemplate.template(
                 NetworkBuffer.STRING_IO_UTF8, PlayerList::serverName,
                 PlayerList::new
         );
 
+        private static final PlayerList ALL_SERVERS = new PlayerList(ALL);
+
         public PlayerList {
             Objects.requireNonNull(serverName, "Server name cannot be null");
         }
@@ -164,20 +207,48 @@ public sealed interface BungeeRequest extends BungeeMessage {
          * <br>
          * Expect multiple responses if there is more than one server with players on it.
          *
-         * @return A {@link PlayerList} request for all players.
+         * @return A {@link PlayerList} request for all players, always the same instance.
          */
         @Contract(pure = true)
-        static PlayerList all() {
-            return new PlayerList(ALL);
+        public static PlayerList all() {
+            return ALL_SERVERS;
+        }
+
+        /**
+         * The packet of the request, encoded once and shared by every send for the {@link #all()} request,
+         * its data must never be modified.
+         *
+         * @return the plugin message packet of the request
+         */
+        @Override
+        @Contract(pure = true)
+        public PluginMessagePacket toPacket() {
+            return serverName.equals(ALL) ? ConstantPackets.PLAYER_LIST_ALL : Query.super.toPacket();
         }
     }
 
     /**
      * Requests the list of all servers. (As defined in your proxy config)
      */
-    record GetServers() implements BungeeRequest {
+    record GetServers() implements Query<BungeeResponse.GetServers> {
         @ApiStatus.Experimental
-        public static final NetworkBuffer.Type<GetServers> SERIALIZER = NetworkBufferTemplate.template(GetServers::new);
+        public static final NetworkBuffer.Type<GetServers> SERIALIZER = NetworkBufferTemplate.template(() -> GetServers.INSTANCE);
+
+        /**
+         * The {@link GetServers} request, every instance being equal to it.
+         */
+        public static final GetServers INSTANCE = new GetServers();
+
+        /**
+         * The packet of the request, encoded once and shared by every send, its data must never be modified.
+         *
+         * @return the plugin message packet of the request
+         */
+        @Override
+        @Contract(pure = true)
+        public PluginMessagePacket toPacket() {
+            return ConstantPackets.GET_SERVERS;
+        }
     }
 
     /**
@@ -306,9 +377,25 @@ public sealed interface BungeeRequest extends BungeeMessage {
     /**
      * Requests the server the sending audience is connected to.
      */
-    record GetServer() implements BungeeRequest {
+    record GetServer() implements Query<BungeeResponse.GetServer> {
         @ApiStatus.Experimental
-        public static final NetworkBuffer.Type<GetServer> SERIALIZER = NetworkBufferTemplate.template(GetServer::new);
+        public static final NetworkBuffer.Type<GetServer> SERIALIZER = NetworkBufferTemplate.template(() -> GetServer.INSTANCE);
+
+        /**
+         * The {@link GetServer} request, every instance being equal to it.
+         */
+        public static final GetServer INSTANCE = new GetServer();
+
+        /**
+         * The packet of the request, encoded once and shared by every send, its data must never be modified.
+         *
+         * @return the plugin message packet of the request
+         */
+        @Override
+        @Contract(pure = true)
+        public PluginMessagePacket toPacket() {
+            return ConstantPackets.GET_SERVER;
+        }
     }
 
     /**
@@ -316,7 +403,7 @@ public sealed interface BungeeRequest extends BungeeMessage {
      *
      * @param playerName The name of the player to get the server for.
      */
-    record GetPlayerServer(String playerName) implements BungeeRequest {
+    record GetPlayerServer(String playerName) implements Query<BungeeResponse.GetPlayerServer> {
         @ApiStatus.Experimental
         public static final NetworkBuffer.Type<GetPlayerServer> SERIALIZER = NetworkBufferTemplate.template(
                 NetworkBuffer.STRING_IO_UTF8, GetPlayerServer::playerName,
@@ -335,9 +422,25 @@ public sealed interface BungeeRequest extends BungeeMessage {
     /**
      * Requests the UUID of the sending audience.
      */
-    record UUID() implements BungeeRequest {
+    record UUID() implements Query<BungeeResponse.UUID> {
         @ApiStatus.Experimental
-        public static final NetworkBuffer.Type<UUID> SERIALIZER = NetworkBufferTemplate.template(UUID::new);
+        public static final NetworkBuffer.Type<UUID> SERIALIZER = NetworkBufferTemplate.template(() -> UUID.INSTANCE);
+
+        /**
+         * The {@link UUID} request, every instance being equal to it.
+         */
+        public static final UUID INSTANCE = new UUID();
+
+        /**
+         * The packet of the request, encoded once and shared by every send, its data must never be modified.
+         *
+         * @return the plugin message packet of the request
+         */
+        @Override
+        @Contract(pure = true)
+        public PluginMessagePacket toPacket() {
+            return ConstantPackets.UUID;
+        }
     }
 
     /**
@@ -345,7 +448,7 @@ public sealed interface BungeeRequest extends BungeeMessage {
      *
      * @param playerName The name of the player to get the UUID for.
      */
-    record UUIDOther(String playerName) implements BungeeRequest {
+    record UUIDOther(String playerName) implements Query<BungeeResponse.UUIDOther> {
         @ApiStatus.Experimental
         public static final NetworkBuffer.Type<UUIDOther> SERIALIZER = NetworkBufferTemplate.template(
                 NetworkBuffer.STRING_IO_UTF8, UUIDOther::playerName,
@@ -366,7 +469,7 @@ public sealed interface BungeeRequest extends BungeeMessage {
      *
      * @param serverName The name of the server to get the IP and port for. (Defined in your proxy config)
      */
-    record ServerIP(String serverName) implements BungeeRequest {
+    record ServerIP(String serverName) implements Query<BungeeResponse.ServerIP> {
         @ApiStatus.Experimental
         public static final NetworkBuffer.Type<ServerIP> SERIALIZER = NetworkBufferTemplate.template(
                 NetworkBuffer.STRING_IO_UTF8, ServerIP::serverName,
@@ -475,7 +578,7 @@ public sealed interface BungeeRequest extends BungeeMessage {
                 NetworkBuffer.STRING_IO_UTF8, Forward::serverName,
                 NetworkBuffer.STRING_IO_UTF8, Forward::channel,
                 BungeeProtocol.SHORT_BYTE_ARRAY_TYPE, Forward::data,
-                Forward::new
+                Forward::wrap // The array was just read, no need to copy it
         );
 
         public Forward {
@@ -484,7 +587,37 @@ public sealed interface BungeeRequest extends BungeeMessage {
             Objects.requireNonNull(data, "Data cannot be null");
             if (data.length > 65535) // Check length before cloning
                 throw new IllegalArgumentException("Data cannot be more than 65535 in length");
-            data = data.clone();
+            data = BungeeProtocol.claim(data);
+        }
+
+        /**
+         * Creates a {@link Forward} request taking ownership of the data instead of copying it.
+         * <br>
+         * The caller must not modify the array afterward.
+         *
+         * @param serverName The name of the server to forward the data to. Supports ALL and ONLINE.
+         * @param channel    The channel to forward the data to.
+         * @param data       The data to forward, now owned by the request.
+         * @return A {@link Forward} request backed by the data.
+         */
+        @Contract("_, _, _ -> new")
+        public static Forward wrap(String serverName, String channel, byte[] data) {
+            final byte[] previous = BungeeProtocol.handoff(data);
+            try {
+                return new Forward(serverName, channel, data);
+            } finally {
+                BungeeProtocol.restore(previous);
+            }
+        }
+
+        /**
+         * A read-only view of the data, without copying it.
+         *
+         * @return the data as a read-only buffer
+         */
+        @Contract(pure = true)
+        public ByteBuffer payload() {
+            return ByteBuffer.wrap(data).asReadOnlyBuffer();
         }
 
         /**
@@ -586,7 +719,7 @@ public sealed interface BungeeRequest extends BungeeMessage {
                 NetworkBuffer.STRING_IO_UTF8, ForwardToPlayer::playerName,
                 NetworkBuffer.STRING_IO_UTF8, ForwardToPlayer::channel,
                 BungeeProtocol.SHORT_BYTE_ARRAY_TYPE, ForwardToPlayer::data,
-                ForwardToPlayer::new
+                ForwardToPlayer::wrap // The array was just read, no need to copy it
         );
 
         public ForwardToPlayer {
@@ -595,7 +728,37 @@ public sealed interface BungeeRequest extends BungeeMessage {
             Objects.requireNonNull(data, "Data cannot be null");
             if (data.length > 65535) // Check length before cloning
                 throw new IllegalArgumentException("Data cannot be more than 65535 in length");
-            data = data.clone();
+            data = BungeeProtocol.claim(data);
+        }
+
+        /**
+         * Creates a {@link ForwardToPlayer} request taking ownership of the data instead of copying it.
+         * <br>
+         * The caller must not modify the array afterward.
+         *
+         * @param playerName The name of the player to forward the data to.
+         * @param channel    The channel to forward the data to.
+         * @param data       The data to forward, now owned by the request.
+         * @return A {@link ForwardToPlayer} request backed by the data.
+         */
+        @Contract("_, _, _ -> new")
+        public static ForwardToPlayer wrap(String playerName, String channel, byte[] data) {
+            final byte[] previous = BungeeProtocol.handoff(data);
+            try {
+                return new ForwardToPlayer(playerName, channel, data);
+            } finally {
+                BungeeProtocol.restore(previous);
+            }
+        }
+
+        /**
+         * A read-only view of the data, without copying it.
+         *
+         * @return the data as a read-only buffer
+         */
+        @Contract(pure = true)
+        public ByteBuffer payload() {
+            return ByteBuffer.wrap(data).asReadOnlyBuffer();
         }
 
         /**
@@ -4,7 +4,10 @@ import net.minestom.server.event.player.PlayerPluginMessageEvent;
 import net.minestom.server.network.NetworkBuffer;
 import net.minestom.server.network.NetworkBufferTemplate;
 import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Contract;
 
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
@@ -92,6 +95,8 @@ public sealed interface BungeeResponse extends BungeeMessage {
 
     /**
      * A response containing the server name and a list of player names.
+     * <p>
+     * When read from the proxy, the names are only decoded once accessed, which matters for large networks.
      *
      * @param serverName     the name of the server
      * @param playerNameList the list of player names, must not be null or empty
@@ -107,7 +112,7 @@ public sealed interface BungeeResponse extends BungeeMessage {
         public PlayerList {
             Objects.requireNonNull(serverName, "Server name cannot be null");
             Objects.requireNonNull(playerNameList, "Player name list cannot be null");
-            playerNameList = List.copyOf(playerNameList);
+            if (!(playerNameList instanceof CsvList)) playerNameList = List.copyOf(playerNameList);
         }
     }
 
@@ -125,7 +130,7 @@ public sealed interface BungeeResponse extends BungeeMessage {
 
         public GetServers {
             Objects.requireNonNull(serverNames, "Server names cannot be null");
-            serverNames = List.copyOf(serverNames);
+            if (!(serverNames instanceof CsvList)) serverNames = List.copyOf(serverNames);
         }
     }
 
@@ -238,7 +243,7 @@ public sealed interface BungeeResponse extends BungeeMessage {
         public static final NetworkBuffer.Type<Forward> SERIALIZER = NetworkBufferTemplate.template(
                 NetworkBuffer.STRING_IO_UTF8, Forward::channel,
                 BungeeProtocol.SHORT_BYTE_ARRAY_TYPE, Forward::data,
-                Forward::new
+                Forward::wrap // The array was just read, no need to copy it
         );
 
         public Forward {
@@ -246,7 +251,62 @@ public sealed interface BungeeResponse extends BungeeMessage {
             Objects.requireNonNull(data, "Data cannot be null");
             if (data.length > 65535) // Check length before cloning
                 throw new IllegalArgumentException("Data cannot be more than 65535 in length");
-            data = data.clone();
+            data = BungeeProtocol.claim(data);
+        }
+
+        /**
+         * Creates a {@link Forward} response taking ownership of the data instead of copying it.
+         * <br>
+         * The caller must not modify the array afterward.
+         *
+         * @param channel the channel forwarded
+         * @param data    the data forwarded, now owned by the response
+         * @return a {@link Forward} response backed by the data
+         */
+        @Contract("_, _ -> new")
+        public static Forward wrap(String channel, byte[] data) {
+            final byte[] previous = BungeeProtocol.handoff(data);
+            try {
+                return new Forward(channel, data);
+            } finally {
+                BungeeProtocol.restore(previous);
+            }
+        }
+
+        /**
+         * A read-only view of the data, without copying it.
+         *
+         * @return the data as a read-only buffer
+         */
+        @Contract(pure = true)
+        public ByteBuffer payload() {
+            return ByteBuffer.wrap(data).asReadOnlyBuffer();
+        }
+
+        /**
+         * Whether the forward is an envelope packed by a {@link ForwardBatcher}, see {@link #unpack()}.
+         *
+         * @return true if the channel is {@link ForwardBatcher#ENVELOPE_CHANNEL}
+         */
+        @Contract(pure = true)
+        public boolean isEnvelope() {
+            return channel.equals(ForwardBatcher.ENVELOPE_CHANNEL);
+        }
+
+        /**
+         * The forwards packed in the envelope, in the order they were sent, or this forward alone if it isn't an envelope.
+         *
+         * @return the forwards carried by this forward
+         * @throws IllegalStateException if the envelope is malformed
+         */
+        @Contract(pure = true)
+        public List<Forward> unpack() {
+            if (!isEnvelope()) return List.of(this);
+            // Every forward of an envelope has the layout of this serializer, back to back
+            final NetworkBuffer buffer = NetworkBuffer.wrap(data, 0, data.length);
+            final List<Forward> forwards = new ArrayList<>();
+            while (buffer.readableBytes() > 0) forwards.add(buffer.read(SERIALIZER));
+            return List.copyOf(forwards);
         }
 
         @Override
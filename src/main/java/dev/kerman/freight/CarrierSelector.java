@@ -0,0 +1,80 @@
+package dev.kerman.freight;
+
+import net.kyori.adventure.audience.Audience;
+import org.jetbrains.annotations.Contract;
+
+import java.util.Collection;
+
+/**
+ * Picks the audience carrying a message sent to a single audience, see {@link BungeeMessage#sendSingle(Collection, BungeeMessage)}.
+ * <p>
+ * The built-in selectors pick by index without copying the collection, lists with random access are indexed directly
+ * and other collections are walked up to the index. A live collection like the players of an instance can change
+ * while they select, a collection shrinking in the meantime yields its last audience instead.
+ * The selector used when none is given can be changed with {@link Freight#carrierSelector(CarrierSelector)}:
+ * <pre>
+ * {@code
+ * Freight.carrierSelector(CarrierSelector.roundRobin());
+ * new BungeeRequest.PlayerCount("lobby").sendSingle(instance.getPlayers());
+ * }
+ * </pre>
+ * Implementations must be thread-safe, messages can be sent from any thread.
+ */
+@FunctionalInterface
+public interface CarrierSelector {
+    /**
+     * Cycles through the audiences of the collection, one after the other.
+     *
+     * @return a new round-robin selector
+     */
+    @Contract("-> new")
+    static CarrierSelector roundRobin() {
+        return new CarrierSelectors.RoundRobin();
+    }
+
+    /**
+     * Picks an audience of the collection at random, this is the default.
+     *
+     * @return the random selector
+     */
+    @Contract(pure = true)
+    static CarrierSelector random() {
+        return CarrierSelectors.RANDOM;
+    }
+
+    /**
+     * Keeps picking the same audience as long as it is in the collection and, for players, online.
+     * Picks another one at random once it isn't.
+     * <p>
+     * Membership is checked with {@link Collection#contains(Object)} on every pick for sets, other collections are only
+     * searched when they are not the collection the audience was last found in.
+     *
+     * @return a new sticky selector
+     */
+    @Contract("-> new")
+    static CarrierSelector sticky() {
+        return new CarrierSelectors.Sticky();
+    }
+
+    /**
+     * Picks the player of the collection which carried a message selected by this selector the longest time ago,
+     * spreading the messages evenly across players. Players never picked by this selector come first.
+     * <p>
+     * Unlike the other selectors, this one looks at every audience of the collection.
+     *
+     * @return a new least recently used selector
+     */
+    @Contract("-> new")
+    static CarrierSelector leastRecentlyUsed() {
+        return new CarrierSelectors.LeastRecentlyUsed();
+    }
+
+    /**
+     * Picks the audience carrying the message.
+     *
+     * @param audiences the audiences to pick from, may be a live collection changing while picking
+     * @return an audience of the collection
+     * @throws IllegalArgumentException if the collection is empty
+     */
+    Audience select(Collection<? extends Audience> audiences);
+}
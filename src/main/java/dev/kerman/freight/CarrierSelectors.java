@@ -0,0 +1,112 @@
+package dev.kerman.freight;
+
+import net.kyori.adventure.audience.Audience;
+import net.minestom.server.entity.Player;
+import net.minestom.server.tag.Tag;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+final class CarrierSelectors {
+    static final CarrierSelector RANDOM = audiences -> at(audiences, ThreadLocalRandom.current().nextInt(size(audiences)));
+
+    private static final AtomicInteger LRU_IDS = new AtomicInteger();
+
+    private CarrierSelectors() {
+    }
+
+    static int size(Collection<? extends Audience> audiences) {
+        final int size = audiences.size();
+        if (size == 0) throw new IllegalArgumentException("Audiences cannot be empty");
+        return size;
+    }
+
+    // Live collections, like the players of an instance, can shrink between reading their size and picking an index,
+    // the last audience still there is picked then.
+    static Audience at(Collection<? extends Audience> audiences, int index) {
+        if (audiences instanceof List<? extends Audience> list && audiences instanceof RandomAccess) {
+            try {
+                return list.get(index);
+            } catch (IndexOutOfBoundsException ignored) {
+                // Shrank, walked below
+            }
+        }
+        Audience last = null;
+        final Iterator<? extends Audience> iterator = audiences.iterator();
+        for (int i = 0; i <= index && iterator.hasNext(); i++) last = iterator.next();
+        if (last == null) throw new IllegalArgumentException("Audiences cannot be empty");
+        return last;
+    }
+
+    static final class RoundRobin implements CarrierSelector {
+        private final AtomicInteger next = new AtomicInteger();
+
+        @Override
+        public Audience select(Collection<? extends Audience> audiences) {
+            return at(audiences, Math.floorMod(next.getAndIncrement(), size(audiences)));
+        }
+    }
+
+    static final class Sticky implements CarrierSelector {
+        private volatile @Nullable Pick current;
+
+        @Override
+        public Audience select(Collection<? extends Audience> audiences) {
+            final Pick current = this.current;
+            if (current != null && (!(current.audience instanceof Player player) || player.isOnline())) {
+                // Sets are checked in constant time, other collections are only searched when they aren't the one
+                // the audience was last found in
+                if (!(audiences instanceof Set<?>) && current.from == audiences) return current.audience;
+                if (audiences.contains(current.audience)) {
+                    if (current.from != audiences) this.current = new Pick(current.audience, audiences);
+                    return current.audience;
+                }
+            }
+            final Audience selected = RANDOM.select(audiences);
+            this.current = new Pick(selected, audiences);
+            return selected;
+        }
+
+        private record Pick(Audience audience, Collection<?> from) {
+        }
+    }
+
+    static final class LeastRecentlyUsed implements CarrierSelector {
+        // Stored on the players so they are forgotten with them, each selector keeps its own clock.
+        private final Tag<Stamp> tag = Tag.Transient("freight:lru-" + LRU_IDS.incrementAndGet());
+        private final AtomicLong clock = new AtomicLong();
+
+        @Override
+        public Audience select(Collection<? extends Audience> audiences) {
+            Player selected = null;
+            Stamp selectedStamp = null;
+            long oldest = Long.MAX_VALUE;
+            for (Audience audience : audiences) {
+                if (!(audience instanceof Player player)) continue;
+                final Stamp stamp = player.getTag(tag);
+                final long used = stamp == null ? 0 : stamp.used;
+                if (used < oldest) {
+                    selected = player;
+                    selectedStamp = stamp;
+                    oldest = used;
+                    if (used == 0) break; // Never used, can't do older
+                }
+            }
+            if (selected == null) return RANDOM.select(audiences); // No player to remember
+            if (selectedStamp == null) selected.setTag(tag, selectedStamp = new Stamp());
+            selectedStamp.used = clock.incrementAndGet();
+            return selected;
+        }
+    }
+
+    static final class Stamp {
+        volatile long used;
+    }
+}
@@ -0,0 +1,21 @@
+package dev.kerman.freight;
+
+import net.minestom.server.network.packet.server.common.PluginMessagePacket;
+
+// Packets of the requests that never change, encoded once when the first of them is sent.
+// Their data is handed out through toPacket(), which documents it must never be modified.
+final class ConstantPackets {
+    static final PluginMessagePacket IP = packet(BungeeRequest.IP.INSTANCE);
+    static final PluginMessagePacket GET_SERVERS = packet(BungeeRequest.GetServers.INSTANCE);
+    static final PluginMessagePacket GET_SERVER = packet(BungeeRequest.GetServer.INSTANCE);
+    static final PluginMessagePacket UUID = packet(BungeeRequest.UUID.INSTANCE);
+    static final PluginMessagePacket PLAYER_COUNT_ALL = packet(BungeeRequest.PlayerCount.all());
+    static final PluginMessagePacket PLAYER_LIST_ALL = packet(BungeeRequest.PlayerList.all());
+
+    private ConstantPackets() {
+    }
+
+    private static PluginMessagePacket packet(BungeeRequest request) {
+        return new PluginMessagePacket(BungeeProtocol.CHANNEL_LEGACY, BungeeMessage.writeRequest(request));
+    }
+}
@@ -0,0 +1,85 @@
+package dev.kerman.freight;
+
+import net.minestom.server.network.NetworkBuffer;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * Immutable list of the values of a comma separated string, as sent by the proxy.
+ * <p>
+ * Backed by the UTF-8 bytes of the string and the bounds of each value, values are only decoded once accessed.
+ * {@link #contains(Object)} and {@link #indexOf(Object)} compare bytes, so they don't decode the values either.
+ * Values may be separated by either {@code ","} or {@code ", "}, BungeeCord uses the latter.
+ */
+final class CsvList extends AbstractList<String> implements RandomAccess {
+    private final byte[] bytes;
+    // Start and end of each value, interleaved
+    private final int[] bounds;
+    // Values decoded so far, racing threads may decode a value twice which is harmless
+    private final @Nullable String[] values;
+
+    private CsvList(byte[] bytes, int[] bounds) {
+        this.bytes = bytes;
+        this.bounds = bounds;
+        this.values = new String[bounds.length >> 1];
+    }
+
+    // Takes ownership of the bytes, an empty string is an empty list
+    static CsvList parse(byte[] bytes) {
+        if (bytes.length == 0) return new CsvList(bytes, new int[0]);
+        int count = 1;
+        for (byte b : bytes) if (b == ',') count++;
+        final int[] bounds = new int[count << 1];
+        int start = 0;
+        int index = 0;
+        for (int i = 0; i <= bytes.length; i++) {
+            if (i != bytes.length && bytes[i] != ',') continue;
+            bounds[index++] = start;
+            bounds[index++] = i;
+            start = i + 1;
+            if (start < bytes.length && bytes[start] == ' ') start++;
+        }
+        return new CsvList(bytes, bounds);
+    }
+
+    void write(NetworkBuffer buffer) {
+        BungeeProtocol.SHORT_BYTE_ARRAY_TYPE.write(buffer, bytes);
+    }
+
+    @Override
+    public String get(int index) {
+        Objects.checkIndex(index, values.length);
+        String value = values[index];
+        if (value == null) {
+            final int start = bounds[index << 1];
+            value = new String(bytes, start, bounds[(index << 1) + 1] - start, StandardCharsets.UTF_8);
+            values[index] = value;
+        }
+        return value;
+    }
+
+    @Override
+    public int size() {
+        return values.length;
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        if (!(o instanceof String string)) return -1;
+        final byte[] needle = string.getBytes(StandardCharsets.UTF_8);
+        for (int i = 0; i < values.length; i++) {
+            if (Arrays.equals(bytes, bounds[i << 1], bounds[(i << 1) + 1], needle, 0, needle.length)) return i;
+        }
+        return -1;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return indexOf(o) >= 0;
+    }
+}
@@ -0,0 +1,89 @@
+package dev.kerman.freight;
+
+import net.minestom.server.MinecraftServer;
+import net.minestom.server.network.player.PlayerConnection;
+import net.minestom.server.timer.SchedulerManager;
+import org.jetbrains.annotations.Contract;
+
+import java.util.function.BiConsumer;
+
+/**
+ * Batches the forwards sent during a tick into envelopes.
+ * <p>
+ * Forwards queued through the same carrier to the same destination are packed into a single envelope,
+ * a forward on {@link #ENVELOPE_CHANNEL} sent at the end of the tick, as long as it stays within the 65535 bytes
+ * of a forward. Every forward costs its channel and data, instead of a whole plugin message with its own header.
+ * A destination with a single forward queued gets it as is.
+ * <p>
+ * The receiving servers have to unpack the envelopes, which a {@link ForwardRouter} and the {@link Freight#listen(Class, BiConsumer) listeners}
+ * of Freight do transparently. Anything else reading the responses gets the envelopes themselves,
+ * and can unpack them with {@link BungeeResponse.Forward#unpack()}:
+ * <pre>
+ * {@code
+ * ForwardBatcher batcher = ForwardBatcher.create();
+ * for (GameEvent event : events) {
+ *     batcher.forward(connection, new BungeeRequest.Forward(BungeeMessage.ONLINE, "replication", event.encode()));
+ * }
+ * }
+ * </pre>
+ */
+public sealed interface ForwardBatcher permits ForwardBatcherImpl {
+    /**
+     * The channel of the envelopes, which can't be routed.
+     */
+    String ENVELOPE_CHANNEL = "freight:batch";
+
+    /**
+     * Creates a new batcher flushing at the end of the ticks of the server.
+     *
+     * @return a new batcher
+     */
+    @Contract("-> new")
+    static ForwardBatcher create() {
+        return create(MinecraftServer.getSchedulerManager());
+    }
+
+    /**
+     * Creates a new batcher flushing at the end of the ticks of the scheduler.
+     *
+     * @param scheduler the scheduler of the ticks
+     * @return a new batcher
+     * @throws NullPointerException if {@code scheduler} is null
+     */
+    @Contract("_ -> new")
+    static ForwardBatcher create(SchedulerManager scheduler) {
+        return new ForwardBatcherImpl(scheduler);
+    }
+
+    /**
+     * Queues the forward, to be sent through the carrier at the end of the tick.
+     *
+     * @param carrier the connection carrying the forward
+     * @param forward the forward to send
+     * @throws NullPointerException if {@code carrier} is null
+     * @throws NullPointerException if {@code forward} is null
+     */
+    void forward(PlayerConnection carrier, BungeeRequest.Forward forward);
+
+    /**
+     * Queues the forward, to be sent through the carrier at the end of the tick.
+     *
+     * @param carrier the connection carrying the forward
+     * @param forward the forward to send
+     * @throws NullPointerException if {@code carrier} is null
+     * @throws NullPointerException if {@code forward} is null
+     */
+    void forward(PlayerConnection carrier, BungeeRequest.ForwardToPlayer forward);
+
+    /**
+     * Sends the queued forwards now, instead of waiting for the end of the tick.
+     */
+    void flush();
+
+    /**
+     * The number of forwards waiting to be sent.
+     *
+     * @return the number of queued forwards
+     */
+    int queued();
+}
@@ -0,0 +1,127 @@
+package dev.kerman.freight;
+
+import net.minestom.server.network.NetworkBuffer;
+import net.minestom.server.network.player.PlayerConnection;
+import net.minestom.server.timer.SchedulerManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+final class ForwardBatcherImpl implements ForwardBatcher {
+    private static final int MAX_ENVELOPE_SIZE = 65535;
+
+    private final SchedulerManager scheduler;
+    // Guarded by this
+    private Map<Destination, Batch> batches = new HashMap<>();
+    private int queued;
+    private boolean scheduled;
+
+    ForwardBatcherImpl(SchedulerManager scheduler) {
+        this.scheduler = Objects.requireNonNull(scheduler, "Scheduler cannot be null");
+    }
+
+    @Override
+    public void forward(PlayerConnection carrier, BungeeRequest.Forward forward) {
+        Objects.requireNonNull(carrier, "Carrier cannot be null");
+        Objects.requireNonNull(forward, "Forward cannot be null");
+        enqueue(new Destination(carrier, false, forward.serverName()), forward, forward.channel(), forward.data());
+    }
+
+    @Override
+    public void forward(PlayerConnection carrier, BungeeRequest.ForwardToPlayer forward) {
+        Objects.requireNonNull(carrier, "Carrier cannot be null");
+        Objects.requireNonNull(forward, "Forward cannot be null");
+        enqueue(new Destination(carrier, true, forward.playerName()), forward, forward.channel(), forward.data());
+    }
+
+    @Override
+    public void flush() {
+        final Map<Destination, Batch> batches;
+        synchronized (this) {
+            batches = this.batches;
+            this.batches = new HashMap<>();
+            MetricsImpl.INSTANCE.batchedForwards(-queued);
+            queued = 0;
+            scheduled = false;
+        }
+        batches.forEach(ForwardBatcherImpl::send);
+    }
+
+    @Override
+    public synchronized int queued() {
+        return queued;
+    }
+
+    private void enqueue(Destination destination, BungeeRequest message, String channel, byte[] data) {
+        // The channel and the data are both prefixed by their unsigned short length, like in a forward
+        final byte[] channelBytes = channel.getBytes(StandardCharsets.UTF_8);
+        final int size = 4 + channelBytes.length + data.length;
+        final Batch full;
+        synchronized (this) {
+            Batch batch = batches.get(destination);
+            if (batch != null && batch.size + size > MAX_ENVELOPE_SIZE) {
+                full = batches.remove(destination);
+                queued -= full.messages.size();
+                MetricsImpl.INSTANCE.batchedForwards(-full.messages.size());
+                batch = null;
+            } else {
+                full = null;
+            }
+            if (size <= MAX_ENVELOPE_SIZE) {
+                if (batch == null) batches.put(destination, batch = new Batch());
+                batch.add(message, channelBytes, data, size);
+                queued++;
+                MetricsImpl.INSTANCE.batchedForwards(1);
+                if (!scheduled) {
+                    scheduled = true;
+                    scheduler.scheduleEndOfTick(this::flush);
+                }
+            }
+        }
+        // Send what was queued before, so the forwards of a destination stay in order
+        if (full != null) send(destination, full);
+        if (size > MAX_ENVELOPE_SIZE) BungeeMessage.send(destination.carrier, message); // Too large to be packed
+    }
+
+    private static void send(Destination destination, Batch batch) {
+        if (batch.messages.size() == 1) {
+            BungeeMessage.send(destination.carrier, batch.messages.getFirst());
+            return;
+        }
+        final byte[] envelope = NetworkBuffer.makeArray(buffer -> {
+            for (int i = 0; i < batch.channels.size(); i++) {
+                final byte[] channel = batch.channels.get(i);
+                final byte[] data = batch.data.get(i);
+                buffer.write(NetworkBuffer.UNSIGNED_SHORT, channel.length);
+                buffer.write(NetworkBuffer.RAW_BYTES, channel);
+                buffer.write(NetworkBuffer.UNSIGNED_SHORT, data.length);
+                buffer.write(NetworkBuffer.RAW_BYTES, data);
+            }
+        });
+        final BungeeRequest request = destination.toPlayer
+                ? BungeeRequest.ForwardToPlayer.wrap(destination.target, ENVELOPE_CHANNEL, envelope)
+                : BungeeRequest.Forward.wrap(destination.target, ENVELOPE_CHANNEL, envelope);
+        BungeeMessage.send(destination.carrier, request);
+    }
+
+    private record Destination(PlayerConnection carrier, boolean toPlayer, String target) {
+    }
+
+    private static final class Batch {
+        final List<BungeeRequest> messages = new ArrayList<>();
+        final List<byte[]> channels = new ArrayList<>();
+        final List<byte[]> data = new ArrayList<>();
+        int size;
+
+        void add(BungeeRequest message, byte[] channel, byte[] data, int size) {
+            this.messages.add(message);
+            this.channels.add(channel);
+            this.data.add(data);
+            this.size += size;
+        }
+    }
+}
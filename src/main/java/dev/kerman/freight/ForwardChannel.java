@@ -0,0 +1,165 @@
+package dev.kerman.freight;
+
+import net.minestom.server.network.NetworkBuffer;
+import net.minestom.server.network.packet.server.common.PluginMessagePacket;
+import net.minestom.server.network.player.PlayerConnection;
+import org.jetbrains.annotations.Contract;
+
+import java.util.Objects;
+
+/**
+ * A forward channel carrying values of a single type.
+ * <p>
+ * Pairs the name of the channel with the {@link NetworkBuffer.Type} of its data, usually a {@code NetworkBufferTemplate}
+ * like the serializers of the requests and responses. Values are encoded straight into the forward frame
+ * and decoded straight from it, without an intermediate array:
+ * <pre>
+ * {@code
+ * record Invite(String from, UUID to) {
+ *     static final NetworkBuffer.Type<Invite> SERIALIZER = NetworkBufferTemplate.template(
+ *             NetworkBuffer.STRING, Invite::from,
+ *             NetworkBuffer.UUID, Invite::to,
+ *             Invite::new
+ *     );
+ * }
+ * ForwardChannel<Invite> invites = new ForwardChannel<>("party:invite", Invite.SERIALIZER);
+ *
+ * invites.send(player.getPlayerConnection(), BungeeMessage.ONLINE, new Invite("alice", bob));
+ * ForwardRouter.builder().route(invites, (player, invite) -> ...);
+ * }
+ * </pre>
+ *
+ * @param name the name of the channel
+ * @param type the type of the data
+ * @param <T>  the type of value carried
+ */
+public record ForwardChannel<T>(String name, NetworkBuffer.Type<T> type) {
+    public ForwardChannel {
+        Objects.requireNonNull(name, "Name cannot be null");
+        Objects.requireNonNull(type, "Type cannot be null");
+    }
+
+    /**
+     * A channel of the same name deflating the values once they are encoded to at least the threshold.
+     * <p>
+     * The data starts with a header byte telling whether the value is deflated, so the receiving side has to use
+     * a compressed channel too, but decodes both kinds transparently. Deflating only pays off for larger values,
+     * and values are sent as is whenever deflating doesn't make them smaller. Compressed values may inflate to more
+     * than 65535 bytes as long as they deflate to less.
+     *
+     * @param threshold the minimum encoded length to deflate, in bytes
+     * @return a compressed channel of the same name
+     * @throws IllegalArgumentException if the threshold is negative
+     */
+    @Contract(pure = true)
+    public ForwardChannel<T> compressed(int threshold) {
+        if (threshold < 0) throw new IllegalArgumentException("Threshold must not be negative");
+        return new ForwardChannel<>(name, ForwardCompression.type(type, threshold));
+    }
+
+    /**
+     * Encodes the value as a {@link BungeeRequest.Forward} to a server.
+     *
+     * @param serverName the server to forward to, {@link BungeeMessage#ALL} or {@link BungeeMessage#ONLINE}
+     * @param value      the value to forward
+     * @return the plugin message packet of the forward
+     * @throws NullPointerException     if {@code serverName} is null
+     * @throws IllegalArgumentException if the encoded value is more than 65535 bytes
+     */
+    @Contract(pure = true)
+    public PluginMessagePacket forward(String serverName, T value) {
+        Objects.requireNonNull(serverName, "Server name cannot be null");
+        return frame(BungeeProtocol.Type.Forward, serverName, value);
+    }
+
+    /**
+     * Encodes the value as a {@link BungeeRequest.ForwardToPlayer} to the server of a player.
+     *
+     * @param playerName the player whose server to forward to
+     * @param value      the value to forward
+     * @return the plugin message packet of the forward
+     * @throws NullPointerException     if {@code playerName} is null
+     * @throws IllegalArgumentException if the encoded value is more than 65535 bytes
+     */
+    @Contract(pure = true)
+    public PluginMessagePacket forwardToPlayer(String playerName, T value) {
+        Objects.requireNonNull(playerName, "Player name cannot be null");
+        return frame(BungeeProtocol.Type.ForwardToPlayer, playerName, value);
+    }
+
+    /**
+     * Sends the value as a {@link BungeeRequest.Forward} to a server, through the connection.
+     *
+     * @param connection the connection carrying the forward
+     * @param serverName the server to forward to, {@link BungeeMessage#ALL} or {@link BungeeMessage#ONLINE}
+     * @param value      the value to forward
+     * @throws NullPointerException     if {@code connection} is null
+     * @throws NullPointerException     if {@code serverName} is null
+     * @throws IllegalArgumentException if the encoded value is more than 65535 bytes
+     */
+    public void send(PlayerConnection connection, String serverName, T value) {
+        Objects.requireNonNull(connection, "Connection cannot be null");
+        final PluginMessagePacket packet = forward(serverName, value);
+        Freight.send(connection, BungeeProtocol.Type.Forward, packet, RateLimiterImpl.forwardKey(BungeeProtocol.Type.Forward, serverName, name));
+    }
+
+    /**
+     * Sends the value as a {@link BungeeRequest.ForwardToPlayer} to the server of a player, through the connection.
+     *
+     * @param connection the connection carrying the forward
+     * @param playerName the player whose server to forward to
+     * @param value      the value to forward
+     * @throws NullPointerException     if {@code connection} is null
+     * @throws NullPointerException     if {@code playerName} is null
+     * @throws IllegalArgumentException if the encoded value is more than 65535 bytes
+     */
+    public void sendToPlayer(PlayerConnection connection, String playerName, T value) {
+        Objects.requireNonNull(connection, "Connection cannot be null");
+        final PluginMessagePacket packet = forwardToPlayer(playerName, value);
+        Freight.send(connection, BungeeProtocol.Type.ForwardToPlayer, packet, RateLimiterImpl.forwardKey(BungeeProtocol.Type.ForwardToPlayer, playerName, name));
+    }
+
+    /**
+     * Decodes the value of a forward received on this channel.
+     *
+     * @param forward the forward received
+     * @return the value forwarded
+     * @throws IllegalArgumentException if the forward is on another channel
+     * @throws IllegalStateException    if the data isn't fully read
+     */
+    @Contract(pure = true)
+    public T read(BungeeResponse.Forward forward) {
+        Objects.requireNonNull(forward, "Forward cannot be null");
+        if (!name.equals(forward.channel()))
+            throw new IllegalArgumentException("Forward on channel %s, expected %s".formatted(forward.channel(), name));
+        final byte[] data = forward.data();
+        return read(data, 0, data.length);
+    }
+
+    // Decodes the value from a range of the array, which must be fully read.
+    T read(byte[] bytes, int offset, int length) {
+        final NetworkBuffer buffer = NetworkBuffer.wrap(bytes, offset, offset + length);
+        final T value = buffer.read(type);
+        final long readableBytes = buffer.readableBytes();
+        if (readableBytes > 0)
+            throw new IllegalStateException("Forward on channel %s not fully read! %d bytes left over.".formatted(name, readableBytes));
+        return value;
+    }
+
+    // Same layout as the Forward and ForwardToPlayer serializers, with the length of the data patched in once written.
+    private PluginMessagePacket frame(BungeeProtocol.Type kind, String target, T value) {
+        final byte[] data = NetworkBuffer.makeArray(buffer -> {
+            BungeeProtocol.Type.REQUEST_SERIALIZER.write(buffer, kind);
+            buffer.write(NetworkBuffer.STRING_IO_UTF8, target);
+            buffer.write(NetworkBuffer.STRING_IO_UTF8, name);
+            final long lengthIndex = buffer.writeIndex();
+            buffer.write(NetworkBuffer.UNSIGNED_SHORT, 0);
+            buffer.write(type, value);
+            final long length = buffer.writeIndex() - lengthIndex - 2;
+            if (length > 65535)
+                throw new IllegalArgumentException("Data cannot be more than 65535 in length, got %d".formatted(length));
+            buffer.writeAt(lengthIndex, NetworkBuffer.UNSIGNED_SHORT, (int) length);
+        });
+        return new PluginMessagePacket(BungeeProtocol.CHANNEL_LEGACY, data);
+    }
+}
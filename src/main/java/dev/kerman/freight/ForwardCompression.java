@@ -0,0 +1,157 @@
+package dev.kerman.freight;
+
+import net.minestom.server.network.NetworkBuffer;
+
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Deflate compression of forward data.
+ * <p>
+ * The data starts with a header byte, {@link #RAW} followed by the encoded value as is, or {@link #DEFLATED}
+ * followed by the var int length of the encoded value and its deflated bytes, up to the end of the data.
+ * Values are only deflated once encoded to at least the threshold, and only if it makes them smaller.
+ */
+final class ForwardCompression {
+    static final byte RAW = 0;
+    static final byte DEFLATED = 1;
+    // Bounds what a forward can inflate to, 65535 bytes of deflated zeros inflate to tens of megabytes
+    static final int MAX_INFLATED_LENGTH = 1 << 24;
+    // Scratch space above this is let go after use, rather than kept by the thread forever
+    private static final int RETAINED_LENGTH = 1 << 20;
+
+    private static final ThreadLocal<Deflater> DEFLATER = ThreadLocal.withInitial(Deflater::new);
+    private static final ThreadLocal<Inflater> INFLATER = ThreadLocal.withInitial(Inflater::new);
+    // Scratch space of this thread, compressed types never nest so a single set is enough
+    private static final ThreadLocal<NetworkBuffer> ENCODE_BUFFER = ThreadLocal.withInitial(NetworkBuffer::resizableBuffer);
+    private static final ThreadLocal<byte[]> INPUT_BUFFER = ThreadLocal.withInitial(() -> new byte[4096]);
+    private static final ThreadLocal<byte[]> DEFLATE_BUFFER = ThreadLocal.withInitial(() -> new byte[4096]);
+    private static final ThreadLocal<NetworkBuffer> DEFLATE_VIEW = ThreadLocal.withInitial(() -> view(DEFLATE_BUFFER.get()));
+
+    private ForwardCompression() {
+    }
+
+    // The value is always the rest of the data, so this type must be written and read last.
+    static <T> NetworkBuffer.Type<T> type(NetworkBuffer.Type<T> type, int threshold) {
+        return new NetworkBuffer.Type<>() {
+            @Override
+            public void write(NetworkBuffer buffer, T value) {
+                // Encoded and deflated in the scratch space of this thread, only the result is written out
+                final NetworkBuffer encoded = ENCODE_BUFFER.get();
+                encoded.clear();
+                encoded.write(type, value);
+                final int encodedLength = (int) encoded.writeIndex();
+                try {
+                    if (encodedLength >= threshold) {
+                        final byte[] input = inputBuffer(encodedLength);
+                        encoded.copyTo(0, input, 0, encodedLength);
+                        final int length = deflate(input, encodedLength, deflateBuffer(encodedLength));
+                        if (length >= 0) {
+                            buffer.write(NetworkBuffer.BYTE, DEFLATED);
+                            buffer.write(NetworkBuffer.VAR_INT, encodedLength);
+                            writeSlice(buffer, DEFLATE_VIEW.get(), length);
+                            return;
+                        }
+                    }
+                    buffer.write(NetworkBuffer.BYTE, RAW);
+                    writeSlice(buffer, encoded, encodedLength);
+                } finally {
+                    if (encodedLength > RETAINED_LENGTH) {
+                        ENCODE_BUFFER.remove();
+                        INPUT_BUFFER.remove();
+                    }
+                }
+            }
+
+            @Override
+            public T read(NetworkBuffer buffer) {
+                final byte header = buffer.read(NetworkBuffer.BYTE);
+                return switch (header) {
+                    case RAW -> buffer.read(type);
+                    case DEFLATED -> {
+                        final int length = buffer.read(NetworkBuffer.VAR_INT);
+                        if (length < 0 || length > MAX_INFLATED_LENGTH)
+                            throw new IllegalStateException("Invalid inflated length %d".formatted(length));
+                        final byte[] inflated = inflate(buffer.read(NetworkBuffer.RAW_BYTES), length);
+                        final NetworkBuffer inflatedBuffer = NetworkBuffer.wrap(inflated, 0, length);
+                        final T value = inflatedBuffer.read(type);
+                        final long readableBytes = inflatedBuffer.readableBytes();
+                        if (readableBytes > 0)
+                            throw new IllegalStateException("Inflated value not fully read! %d bytes left over.".formatted(readableBytes));
+                        yield value;
+                    }
+                    default -> throw new IllegalStateException("Unknown compression header %d".formatted(header));
+                };
+            }
+        };
+    }
+
+    // Writes the first bytes of the source as is, without copying them to an array of their own.
+    private static void writeSlice(NetworkBuffer buffer, NetworkBuffer source, int length) {
+        buffer.ensureWritable(length);
+        NetworkBuffer.copy(source, 0, buffer, buffer.writeIndex(), length);
+        buffer.advanceWrite(length);
+    }
+
+    // Deflates into the buffer of this thread, returns the deflated length or -1 if it isn't smaller than the input.
+    private static int deflate(byte[] input, int inputLength, byte[] output) {
+        final Deflater deflater = DEFLATER.get();
+        deflater.reset();
+        deflater.setInput(input, 0, inputLength);
+        deflater.finish();
+        final int limit = Math.min(output.length, inputLength - 1);
+        int length = 0;
+        while (!deflater.finished() && length < limit) length += deflater.deflate(output, length, limit - length);
+        return deflater.finished() ? length : -1;
+    }
+
+    // Deflated data never needs more than the input, and can't exceed the maximum length of a forward anyway
+    private static byte[] deflateBuffer(int inputLength) {
+        final int capacity = Math.min(inputLength, 65535);
+        byte[] buffer = DEFLATE_BUFFER.get();
+        if (buffer.length < capacity) {
+            buffer = new byte[capacity];
+            DEFLATE_BUFFER.set(buffer);
+            DEFLATE_VIEW.set(view(buffer));
+        }
+        return buffer;
+    }
+
+    private static byte[] inputBuffer(int length) {
+        byte[] buffer = INPUT_BUFFER.get();
+        if (buffer.length < length) {
+            buffer = new byte[Math.max(length, buffer.length * 2)];
+            INPUT_BUFFER.set(buffer);
+        }
+        return buffer;
+    }
+
+    // Wrapping shares the array, so the view always sees the last bytes deflated into it
+    private static NetworkBuffer view(byte[] buffer) {
+        return NetworkBuffer.wrap(buffer, 0, buffer.length);
+    }
+
+    // The length is declared by the sender, so the output only grows as the input actually inflates.
+    private static byte[] inflate(byte[] input, int length) {
+        final Inflater inflater = INFLATER.get();
+        inflater.reset();
+        inflater.setInput(input);
+        byte[] output = new byte[Math.min(length, Math.max(256, input.length * 4))];
+        try {
+            int inflated = 0;
+            while (!inflater.finished() && inflated < length) {
+                if (inflated == output.length) output = Arrays.copyOf(output, (int) Math.min(length, output.length * 2L));
+                final int read = inflater.inflate(output, inflated, output.length - inflated);
+                if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) break;
+                inflated += read;
+            }
+            if (inflated != length || !inflater.finished() || inflater.getRemaining() > 0)
+                throw new IllegalStateException("Inflated %d bytes, expected %d".formatted(inflated, length));
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Invalid deflated data", e);
+        }
+        return output;
+    }
+}
@@ -0,0 +1,138 @@
+package dev.kerman.freight;
+
+import net.minestom.server.entity.Player;
+import net.minestom.server.event.EventNode;
+import net.minestom.server.event.player.PlayerEvent;
+import org.jetbrains.annotations.Contract;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+
+/**
+ * Routes the incoming {@link BungeeResponse.Forward forwards} to a handler per channel.
+ * <p>
+ * Channels are looked up in a table built once by the {@link Builder}, straight from the bytes of the plugin message,
+ * so the {@link BungeeResponse.Forward} is never created and a forward on a channel without a route costs a single lookup.
+ * Handlers receive a read-only view of the data, backed by the plugin message, or its value for a {@link ForwardChannel}.
+ * <p>
+ * The router has to receive the plugin messages of the players, so you have to register its event node:
+ * <pre>
+ * {@code
+ * ForwardRouter router = ForwardRouter.builder()
+ *         .route("party", (player, data) -> System.out.println(data.remaining()))
+ *         .build();
+ * MinecraftServer.getGlobalEventHandler().addChild(router.eventNode());
+ * }
+ * </pre>
+ * Handlers are called on the thread handling the incoming plugin message.
+ * <p>
+ * Envelopes packed by a {@link ForwardBatcher} are unpacked, each of their forwards being routed on its own.
+ */
+public sealed interface ForwardRouter permits ForwardRouterImpl {
+    /**
+     * Creates a new builder for a router.
+     *
+     * @return a new builder
+     */
+    @Contract("-> new")
+    static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Routes a BungeeCord plugin message to the handler of its channel, if it is a forward with a route.
+     *
+     * @param player  the player that received the message
+     * @param message the data of the plugin message
+     * @return true if the message was handled, false if it isn't a forward or its channel has no route,
+     * for an envelope true if any of its forwards was handled
+     * @throws NullPointerException  if {@code player} is null
+     * @throws NullPointerException  if {@code message} is null
+     * @throws IllegalStateException if the message is a malformed forward on a routed channel
+     */
+    boolean route(Player player, byte[] message);
+
+    /**
+     * The event node receiving the forwards, you have to add it to your event handler.
+     *
+     * @return the event node of this router
+     */
+    EventNode<PlayerEvent> eventNode();
+
+    /**
+     * Builder for {@link ForwardRouter}.
+     */
+    final class Builder {
+        final Map<String, ForwardRouterImpl.Target> routes = new LinkedHashMap<>();
+
+        Builder() {
+        }
+
+        /**
+         * Routes the forwards of a channel to the handler.
+         * <p>
+         * The data is only valid as a read-only view, copy it if you need to modify it.
+         *
+         * @param channel the channel to route
+         * @param handler the handler of the forwards, receiving the player and the data
+         * @return this builder
+         * @throws NullPointerException     if {@code channel} is null
+         * @throws NullPointerException     if {@code handler} is null
+         * @throws IllegalArgumentException if the channel already has a route
+         * @throws IllegalArgumentException if the channel is named after a response type, as such forwards can't be told apart
+         * @throws IllegalArgumentException if the channel is {@link ForwardBatcher#ENVELOPE_CHANNEL}
+         */
+        @Contract("_, _ -> this")
+        public Builder route(String channel, BiConsumer<Player, ByteBuffer> handler) {
+            Objects.requireNonNull(handler, "Handler cannot be null");
+            return target(channel, (player, message, offset, length) ->
+                    handler.accept(player, ByteBuffer.wrap(message, offset, length).slice().asReadOnlyBuffer()));
+        }
+
+        /**
+         * Routes the forwards of a typed channel to the handler, decoding their data first.
+         *
+         * @param channel the channel to route
+         * @param handler the handler of the forwards, receiving the player and the decoded value
+         * @param <T>     the type of value carried by the channel
+         * @return this builder
+         * @throws NullPointerException     if {@code channel} is null
+         * @throws NullPointerException     if {@code handler} is null
+         * @throws IllegalArgumentException if the channel already has a route
+         * @throws IllegalArgumentException if the channel is named after a response type, as such forwards can't be told apart
+         * @throws IllegalArgumentException if the channel is {@link ForwardBatcher#ENVELOPE_CHANNEL}
+         */
+        @Contract("_, _ -> this")
+        public <T> Builder route(ForwardChannel<T> channel, BiConsumer<Player, T> handler) {
+            Objects.requireNonNull(channel, "Channel cannot be null");
+            Objects.requireNonNull(handler, "Handler cannot be null");
+            return target(channel.name(), (player, message, offset, length) ->
+                    handler.accept(player, channel.read(message, offset, length)));
+        }
+
+        Builder target(String channel, ForwardRouterImpl.Target target) {
+            Objects.requireNonNull(channel, "Channel cannot be null");
+            if (channel.equals(ForwardBatcher.ENVELOPE_CHANNEL))
+                throw new IllegalArgumentException("Channel %s is reserved for envelopes".formatted(channel));
+            if (BungeeProtocol.Type.isResponseTag(channel.getBytes(StandardCharsets.UTF_8)))
+                throw new IllegalArgumentException("Channel %s is named after a response type".formatted(channel));
+            if (routes.putIfAbsent(channel, target) != null)
+                throw new IllegalArgumentException("Channel %s already has a route".formatted(channel));
+            return this;
+        }
+
+        /**
+         * Builds the router.
+         *
+         * @return a new router
+         */
+        @Contract("-> new")
+        public ForwardRouter build() {
+            return new ForwardRouterImpl(this);
+        }
+    }
+}
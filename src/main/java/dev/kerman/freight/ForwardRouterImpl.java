@@ -0,0 +1,108 @@
+package dev.kerman.freight;
+
+import net.minestom.server.entity.Player;
+import net.minestom.server.event.EventFilter;
+import net.minestom.server.event.EventNode;
+import net.minestom.server.event.player.PlayerEvent;
+import net.minestom.server.event.player.PlayerPluginMessageEvent;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+
+final class ForwardRouterImpl implements ForwardRouter {
+    private static final byte[] ENVELOPE = ForwardBatcher.ENVELOPE_CHANNEL.getBytes(StandardCharsets.UTF_8);
+
+    // Open addressing table of the routes, at most half full so probes stay short
+    private final @Nullable Route[] table;
+    private final int mask;
+    private final EventNode<PlayerEvent> eventNode;
+
+    ForwardRouterImpl(ForwardRouter.Builder builder) {
+        final int capacity = Math.max(2, Integer.highestOneBit(Math.max(1, builder.routes.size()) * 2 - 1) << 1);
+        this.table = new Route[capacity];
+        this.mask = capacity - 1;
+        for (Map.Entry<String, Target> entry : builder.routes.entrySet()) {
+            final byte[] channel = entry.getKey().getBytes(StandardCharsets.UTF_8);
+            final int hash = hash(channel, 0, channel.length);
+            int slot = hash & mask;
+            while (table[slot] != null) slot = slot + 1 & mask;
+            table[slot] = new Route(channel, hash, entry.getValue());
+        }
+        this.eventNode = EventNode.type("freight-router", EventFilter.PLAYER);
+        eventNode.addListener(PlayerPluginMessageEvent.class, event -> {
+            if (BungeeProtocol.isIdentifier(event.getIdentifier())) route(event.getPlayer(), event.getMessage());
+        });
+    }
+
+    @Override
+    public boolean route(Player player, byte[] message) {
+        Objects.requireNonNull(player, "Player cannot be null");
+        Objects.requireNonNull(message, "Message cannot be null");
+        return dispatch(player, message, 0, message.length, true);
+    }
+
+    // Dispatches the forward in the range, the channel then the data, both prefixed by an unsigned short length.
+    // Same layout as the Forward serializer, and as every forward packed in an envelope.
+    private boolean dispatch(Player player, byte[] message, int from, int to, boolean unpack) {
+        if (to - from < 4) return false;
+        final int channelStart = from + 2;
+        final int channelEnd = channelStart + readUnsignedShort(message, from);
+        if (channelEnd + 2 > to) return false;
+        final int length = readUnsignedShort(message, channelEnd);
+        final int offset = channelEnd + 2;
+        final int hash = hash(message, channelStart, channelEnd);
+        for (int slot = hash & mask; ; slot = slot + 1 & mask) {
+            final Route route = table[slot];
+            if (route == null) break;
+            if (route.hash != hash || !Arrays.equals(route.channel, 0, route.channel.length, message, channelStart, channelEnd))
+                continue;
+            if (offset + length != to)
+                throw new IllegalStateException("Malformed forward on channel %s, %d bytes declared but %d present"
+                        .formatted(new String(route.channel, StandardCharsets.UTF_8), length, to - offset));
+            route.target.accept(player, message, offset, length);
+            return true;
+        }
+        if (!unpack || !Arrays.equals(ENVELOPE, 0, ENVELOPE.length, message, channelStart, channelEnd)) return false;
+        if (offset + length != to)
+            throw new IllegalStateException("Malformed envelope, %d bytes declared but %d present".formatted(length, to - offset));
+        // Envelopes are never nested, so their forwards are dispatched on their own
+        boolean routed = false;
+        for (int index = offset; index < to; ) {
+            if (to - index < 4) throw new IllegalStateException("Malformed envelope, truncated forward");
+            final int dataStart = index + 2 + readUnsignedShort(message, index);
+            if (dataStart + 2 > to) throw new IllegalStateException("Malformed envelope, truncated forward");
+            final int end = dataStart + 2 + readUnsignedShort(message, dataStart);
+            if (end > to) throw new IllegalStateException("Malformed envelope, truncated forward");
+            routed |= dispatch(player, message, index, end, false);
+            index = end;
+        }
+        return routed;
+    }
+
+    @Override
+    public EventNode<PlayerEvent> eventNode() {
+        return eventNode;
+    }
+
+    private static int readUnsignedShort(byte[] bytes, int index) {
+        return (bytes[index] & 0xFF) << 8 | bytes[index + 1] & 0xFF;
+    }
+
+    private static int hash(byte[] bytes, int from, int to) {
+        int hash = 1;
+        for (int i = from; i < to; i++) hash = 31 * hash + bytes[i];
+        return hash ^ hash >>> 16;
+    }
+
+    // Receives the data of a routed forward, as a range of the plugin message.
+    @FunctionalInterface
+    interface Target {
+        void accept(Player player, byte[] message, int offset, int length);
+    }
+
+    private record Route(byte[] channel, int hash, Target target) {
+    }
+}
@@ -0,0 +1,215 @@
+package dev.kerman.freight;
+
+import net.kyori.adventure.audience.Audience;
+import net.minestom.server.entity.Player;
+import net.minestom.server.event.EventNode;
+import net.minestom.server.event.player.PlayerEvent;
+import net.minestom.server.network.ConnectionState;
+import net.minestom.server.network.packet.server.CachedPacket;
+import net.minestom.server.network.packet.server.SendablePacket;
+import net.minestom.server.network.packet.server.common.PluginMessagePacket;
+import net.minestom.server.network.player.PlayerConnection;
+import net.minestom.server.utils.PacketSendingUtils;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Objects;
+import java.util.function.BiConsumer;
+
+/**
+ * Global settings of Freight, applying to every message it sends, and the listeners of the responses it receives.
+ * <p>
+ * Listeners are registered per type of response, each incoming message is decoded once for all of them,
+ * and messages of a type nobody listens to are skipped without decoding anything past their tag:
+ * <pre>
+ * {@code
+ * MinecraftServer.getGlobalEventHandler().addChild(Freight.eventNode());
+ * Freight.listen(BungeeResponse.PlayerCount.class, (player, response) -> counts.put(response.serverName(), response.playerCount()));
+ * }
+ * </pre>
+ * Listeners are called on the thread handling the incoming plugin message.
+ */
+public final class Freight {
+    private static final ResponseListeners listeners = new ResponseListeners();
+    private static volatile @Nullable RateLimiterImpl rateLimiter;
+    private static volatile CarrierSelector carrierSelector = CarrierSelector.random();
+
+    private Freight() {
+    }
+
+    /**
+     * Sets the rate limiter of every message sent by Freight, or sends them right away if null, which is the default.
+     * <p>
+     * The previous rate limiter is closed, the messages it still queues are handed over to the new one,
+     * or sent right away if rate limiting is disabled. A closed rate limiter cannot be installed again.
+     *
+     * @param rateLimiter the rate limiter, or null to disable rate limiting
+     * @throws IllegalArgumentException if the rate limiter was closed
+     */
+    public static synchronized void rateLimiter(@Nullable RateLimiter rateLimiter) {
+        final RateLimiterImpl next = (RateLimiterImpl) rateLimiter;
+        final RateLimiterImpl previous = Freight.rateLimiter;
+        if (next == previous) return;
+        if (next != null && next.closed()) throw new IllegalArgumentException("Rate limiter was closed");
+        Freight.rateLimiter = next;
+        if (previous != null) previous.close(next);
+    }
+
+    /**
+     * The rate limiter of every message sent by Freight.
+     *
+     * @return the rate limiter, or null if messages are sent right away
+     */
+    public static @Nullable RateLimiter rateLimiter() {
+        return rateLimiter;
+    }
+
+    /**
+     * Sets the carrier selector of the messages sent to a single audience without one, defaults to {@link CarrierSelector#random()}.
+     *
+     * @param carrierSelector the carrier selector
+     * @throws NullPointerException if {@code carrierSelector} is null
+     */
+    public static void carrierSelector(CarrierSelector carrierSelector) {
+        Freight.carrierSelector = Objects.requireNonNull(carrierSelector, "Carrier selector cannot be null");
+    }
+
+    /**
+     * The carrier selector of the messages sent to a single audience without one.
+     *
+     * @return the carrier selector
+     */
+    public static CarrierSelector carrierSelector() {
+        return carrierSelector;
+    }
+
+    /**
+     * Listens to the responses of a type, received by the players of the {@link #eventNode() event node}.
+     *
+     * @param type     the type of response
+     * @param listener the listener, called with the player which received the response
+     * @param <R>      the type of response
+     * @throws NullPointerException     if {@code type} is null
+     * @throws NullPointerException     if {@code listener} is null
+     * @throws IllegalArgumentException if the type is not a record of {@link BungeeResponse}
+     */
+    public static <R extends BungeeResponse> void listen(Class<R> type, BiConsumer<Player, ? super R> listener) {
+        Objects.requireNonNull(type, "Type cannot be null");
+        Objects.requireNonNull(listener, "Listener cannot be null");
+        listeners.add(type, listener);
+    }
+
+    /**
+     * Stops a listener added with {@link #listen(Class, BiConsumer)} from listening to the responses of a type.
+     *
+     * @param type     the type of response
+     * @param listener the listener
+     * @param <R>      the type of response
+     * @return true if the listener was listening to the type
+     * @throws NullPointerException     if {@code type} is null
+     * @throws NullPointerException     if {@code listener} is null
+     * @throws IllegalArgumentException if the type is not a record of {@link BungeeResponse}
+     */
+    public static <R extends BungeeResponse> boolean unlisten(Class<R> type, BiConsumer<Player, ? super R> listener) {
+        Objects.requireNonNull(type, "Type cannot be null");
+        Objects.requireNonNull(listener, "Listener cannot be null");
+        return listeners.remove(type, listener);
+    }
+
+    /**
+     * The metrics of the traffic of Freight.
+     *
+     * @return the metrics
+     */
+    public static Metrics metrics() {
+        return MetricsImpl.INSTANCE;
+    }
+
+    /**
+     * The event node receiving the responses of the listeners, and counting them in the {@link #metrics() metrics},
+     * you have to add it to your event handler.
+     *
+     * @return the event node of the listeners
+     */
+    public static EventNode<PlayerEvent> eventNode() {
+        return listeners.eventNode();
+    }
+
+    static boolean listens(BungeeProtocol.Type type) {
+        return listeners.listens(type);
+    }
+
+    // Every packet sent by Freight goes through here, the key tells which queued packet it can replace when coalescing.
+    // Packets without a key are only ever delayed by the rate limiter, their sender bounds how many it has in flight.
+    static void send(PlayerConnection connection, BungeeProtocol.Type type, SendablePacket packet, @Nullable Object key) {
+        deliver(connection, type, size(packet), packet, key, null, key != null, Freight.rateLimiter);
+    }
+
+    static void send(PlayerConnection connection, BungeeMessage message, SendablePacket packet) {
+        send(connection, message, packet, null);
+    }
+
+    // The drop callback is run if the rate limiter drops or rejects the packet instead of sending it.
+    static void send(PlayerConnection connection, BungeeMessage message, SendablePacket packet, @Nullable Runnable onDrop) {
+        final RateLimiterImpl rateLimiter = Freight.rateLimiter;
+        final @Nullable Object key = rateLimiter == null ? null : RateLimiterImpl.key(message);
+        deliver(connection, BungeeProtocol.Type.toType(message), size(packet), packet, key, onDrop, true, rateLimiter);
+    }
+
+    static void send(Audience audience, BungeeMessage message, PluginMessagePacket packet) {
+        send(audience, message, packet, packet);
+    }
+
+    // The framed packet goes to the players sent to one by one, Minestom frames the packet once itself for grouped audiences.
+    static void send(Audience audience, BungeeMessage message, PluginMessagePacket packet, SendablePacket framed) {
+        final BungeeProtocol.Type type = BungeeProtocol.Type.toType(message);
+        final int size = size(packet);
+        final RateLimiterImpl rateLimiter = Freight.rateLimiter;
+        if (rateLimiter == null) {
+            final FreightEvents.Send event = new FreightEvents.Send();
+            event.begin();
+            PacketSendingUtils.sendPacket(audience, packet);
+            audience.forEachAudience(member -> {
+                if (member instanceof Player) MetricsImpl.INSTANCE.sent(type, size);
+            });
+            if (event.shouldCommit()) event.complete(type, size, "audience");
+            return;
+        }
+        final Object key = RateLimiterImpl.key(message);
+        audience.forEachAudience(member -> {
+            if (member instanceof Player player) deliver(player.getPlayerConnection(), type, size, framed, key, null, true, rateLimiter);
+        });
+    }
+
+    // Only sends to the players of the audience, like PacketSendingUtils does.
+    static void broadcast(Audience audience, BungeeMessage message, SendablePacket packet) {
+        final BungeeProtocol.Type type = BungeeProtocol.Type.toType(message);
+        final int size = size(packet);
+        final RateLimiterImpl rateLimiter = Freight.rateLimiter;
+        final @Nullable Object key = rateLimiter == null ? null : RateLimiterImpl.key(message);
+        audience.forEachAudience(member -> {
+            if (member instanceof Player player) deliver(player.getPlayerConnection(), type, size, packet, key, null, true, rateLimiter);
+        });
+    }
+
+    private static void deliver(PlayerConnection connection, BungeeProtocol.Type type, int size, SendablePacket packet,
+                                @Nullable Object key, @Nullable Runnable onDrop, boolean droppable,
+                                @Nullable RateLimiterImpl rateLimiter) {
+        final FreightEvents.Send event = new FreightEvents.Send();
+        event.begin();
+        MetricsImpl.INSTANCE.sent(type, size);
+        if (rateLimiter == null) connection.sendPacket(packet);
+        else if (droppable) rateLimiter.send(connection, packet, key, onDrop);
+        else rateLimiter.delay(connection, packet);
+        if (event.shouldCommit()) event.complete(type, size, FreightEvents.carrier(connection));
+    }
+
+    // The size of the message carried by the packet, the plugin message framing left out.
+    private static int size(SendablePacket packet) {
+        return switch (packet) {
+            case PluginMessagePacket plugin -> plugin.data().length;
+            case CachedPacket cached when cached.packet(ConnectionState.PLAY) instanceof PluginMessagePacket plugin ->
+                    plugin.data().length;
+            default -> 0;
+        };
+    }
+}
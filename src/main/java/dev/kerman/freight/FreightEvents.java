@@ -0,0 +1,119 @@
+package dev.kerman.freight;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import net.minestom.server.entity.Player;
+import net.minestom.server.network.player.PlayerConnection;
+import org.jetbrains.annotations.Nullable;
+
+// Flight recorder events, disabled unless a recording enables them by name.
+// Created on the stack and only filled in when they should be committed, so they cost nothing while disabled.
+// Round trips are the exception, kept with their query from the moment it is sent while the event is enabled.
+final class FreightEvents {
+    private FreightEvents() {
+    }
+
+    static String carrier(@Nullable PlayerConnection connection) {
+        if (connection == null) return "";
+        final Player player = connection.getPlayer();
+        return player != null ? player.getUsername() : String.valueOf(connection.getRemoteAddress());
+    }
+
+    @Name("dev.kerman.freight.Encode")
+    @Label("Freight Encode")
+    @Description("A BungeeCord message written to bytes")
+    @Category("Freight")
+    @Enabled(false)
+    @StackTrace(false)
+    static final class Encode extends Event {
+        @Label("Type")
+        String type;
+        @Label("Size")
+        @DataAmount
+        int size;
+
+        void complete(BungeeProtocol.Type type, int size) {
+            this.type = type.name();
+            this.size = size;
+            commit();
+        }
+    }
+
+    @Name("dev.kerman.freight.Decode")
+    @Label("Freight Decode")
+    @Description("A BungeeCord message read from bytes")
+    @Category("Freight")
+    @Enabled(false)
+    @StackTrace(false)
+    static final class Decode extends Event {
+        @Label("Type")
+        String type;
+        @Label("Size")
+        @DataAmount
+        int size;
+        @Label("Carrier")
+        String carrier;
+
+        void complete(BungeeProtocol.Type type, int size, @Nullable PlayerConnection connection) {
+            this.type = type.name();
+            this.size = size;
+            this.carrier = carrier(connection);
+            commit();
+        }
+    }
+
+    @Name("dev.kerman.freight.Send")
+    @Label("Freight Send")
+    @Description("A BungeeCord message handed to a connection, or queued by the rate limiter")
+    @Category("Freight")
+    @Enabled(false)
+    @StackTrace(false)
+    static final class Send extends Event {
+        @Label("Type")
+        String type;
+        @Label("Size")
+        @DataAmount
+        int size;
+        @Label("Carrier")
+        String carrier;
+
+        void complete(BungeeProtocol.Type type, int size, String carrier) {
+            this.type = type.name();
+            this.size = size;
+            this.carrier = carrier;
+            commit();
+        }
+    }
+
+    @Name("dev.kerman.freight.RoundTrip")
+    @Label("Freight Round Trip")
+    @Description("A query of a BungeeClient answered by the proxy")
+    @Category("Freight")
+    @Enabled(false)
+    @StackTrace(false)
+    static final class RoundTrip extends Event {
+        @Label("Type")
+        String type;
+        @Label("Query")
+        String query;
+        @Label("Response")
+        String response;
+        @Label("Carrier")
+        String carrier;
+
+        // Begun when the query is sent, so the duration of the event is the round trip
+        void complete(BungeeRequest.Query<?> query, BungeeResponse response, PlayerConnection connection) {
+            this.type = BungeeProtocol.Type.toType(query).name();
+            this.query = query.toString();
+            this.response = response.toString();
+            this.carrier = carrier(connection);
+            commit();
+        }
+    }
+}
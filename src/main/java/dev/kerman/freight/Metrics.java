@@ -0,0 +1,136 @@
+package dev.kerman.freight;
+
+import org.jetbrains.annotations.Contract;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Counters of the traffic of Freight, read through {@link #snapshot() snapshots}.
+ * <p>
+ * Recording only bumps striped counters, so the metrics are always on. Nothing is pushed anywhere,
+ * take snapshots at the pace of your own monitoring stack and export them from there:
+ * <pre>
+ * {@code
+ * Metrics.Snapshot snapshot = Freight.metrics().snapshot();
+ * snapshot.traffic().forEach((type, traffic) -> gauge("freight_out_bytes", type).set(traffic.bytesOut()));
+ * }
+ * </pre>
+ * Outgoing messages are counted per connection they are handed to, before any {@link RateLimiter rate limiting}.
+ * Incoming messages are counted by the {@link Freight#eventNode() event node of Freight}, which has to be registered.
+ */
+public sealed interface Metrics permits MetricsImpl {
+    /**
+     * Takes a snapshot of the counters, each of them read once.
+     * <p>
+     * Counters are updated concurrently, so the snapshot isn't atomic across counters.
+     *
+     * @return a new snapshot
+     */
+    @Contract("-> new")
+    Snapshot snapshot();
+
+    /**
+     * The counters of Freight at the time of the snapshot.
+     *
+     * @param traffic         the traffic per type of message, named after the protocol, in protocol order
+     * @param decodeFailures  the number of messages that couldn't be decoded
+     * @param pendingQueries  the number of queries waiting for a response, across every {@link BungeeClient}
+     * @param batchedForwards the number of forwards waiting to be sent, across every {@link ForwardBatcher}
+     * @param rateLimited     the number of messages waiting for a token of the installed {@link RateLimiter}
+     */
+    record Snapshot(Map<String, Traffic> traffic, long decodeFailures, long pendingQueries,
+                    long batchedForwards, int rateLimited) {
+        public Snapshot {
+            // Keeps the protocol order
+            traffic = Collections.unmodifiableMap(new LinkedHashMap<>(Objects.requireNonNull(traffic, "Traffic cannot be null")));
+        }
+    }
+
+    /**
+     * The traffic of a type of message.
+     *
+     * @param messagesOut the number of messages sent
+     * @param bytesOut    the bytes of the messages sent
+     * @param messagesIn  the number of messages received
+     * @param bytesIn     the bytes of the messages received
+     * @param roundTrips  the time between a query of this type being sent by a {@link BungeeClient} and its response
+     */
+    record Traffic(long messagesOut, long bytesOut, long messagesIn, long bytesIn, Histogram roundTrips) {
+        public Traffic {
+            Objects.requireNonNull(roundTrips, "Round trips cannot be null");
+        }
+    }
+
+    /**
+     * Histogram of durations, with buckets growing in powers of two from a microsecond up to about 17 seconds.
+     * <p>
+     * Bucket {@code i} counts the durations below {@link #upperBoundNanos(int) upperBoundNanos(i)} that don't fit a
+     * lower bucket, the last bucket counts everything above.
+     *
+     * @param counts the count of every bucket
+     */
+    record Histogram(long[] counts) {
+        /**
+         * The number of buckets.
+         */
+        public static final int BUCKETS = 26;
+
+        public Histogram {
+            Objects.requireNonNull(counts, "Counts cannot be null");
+            if (counts.length != BUCKETS) throw new IllegalArgumentException("Histogram must have %d buckets".formatted(BUCKETS));
+            counts = counts.clone();
+        }
+
+        /**
+         * The exclusive upper bound of a bucket, in nanoseconds, the last bucket has none.
+         *
+         * @param bucket the bucket
+         * @return the upper bound, {@link Long#MAX_VALUE} for the last bucket
+         * @throws IndexOutOfBoundsException if there is no such bucket
+         */
+        public static long upperBoundNanos(int bucket) {
+            Objects.checkIndex(bucket, BUCKETS);
+            return bucket == BUCKETS - 1 ? Long.MAX_VALUE : 1000L << bucket;
+        }
+
+        /**
+         * The count of every bucket, a copy.
+         *
+         * @return the counts
+         */
+        @Override
+        public long[] counts() {
+            return counts.clone();
+        }
+
+        /**
+         * The number of durations recorded.
+         *
+         * @return the sum of every bucket
+         */
+        public long count() {
+            long count = 0;
+            for (long bucket : counts) count += bucket;
+            return count;
+        }
+
+        @Override
+        public boolean equals(Object object) {
+            return object instanceof Histogram(long[] counts1) && Arrays.equals(counts, counts1);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(counts);
+        }
+
+        @Override
+        public String toString() {
+            return "Histogram[counts=%s]".formatted(Arrays.toString(counts));
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package dev.kerman.freight;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+final class MetricsImpl implements Metrics {
+    static final MetricsImpl INSTANCE = new MetricsImpl();
+
+    private static final BungeeProtocol.Type[] TYPES = BungeeProtocol.Type.values();
+
+    // Indexed by the ordinal of the types
+    private final LongAdder[] messagesOut = adders(TYPES.length);
+    private final LongAdder[] bytesOut = adders(TYPES.length);
+    private final LongAdder[] messagesIn = adders(TYPES.length);
+    private final LongAdder[] bytesIn = adders(TYPES.length);
+    private final LongAdder[][] roundTrips = new LongAdder[TYPES.length][];
+    private final LongAdder decodeFailures = new LongAdder();
+    private final LongAdder pendingQueries = new LongAdder();
+    private final LongAdder batchedForwards = new LongAdder();
+
+    private MetricsImpl() {
+        for (BungeeProtocol.Type type : TYPES) roundTrips[type.ordinal()] = adders(Histogram.BUCKETS);
+    }
+
+    void sent(BungeeProtocol.Type type, int bytes) {
+        messagesOut[type.ordinal()].increment();
+        bytesOut[type.ordinal()].add(bytes);
+    }
+
+    void received(BungeeProtocol.Type type, int bytes) {
+        messagesIn[type.ordinal()].increment();
+        bytesIn[type.ordinal()].add(bytes);
+    }
+
+    void roundTrip(BungeeProtocol.Type type, long nanos) {
+        // Bucket i holds [2^(i-1), 2^i) microseconds, the sub-microsecond ones land in the first
+        final int bucket = 64 - Long.numberOfLeadingZeros(Math.max(0, nanos) / 1000);
+        roundTrips[type.ordinal()][Math.min(bucket, Histogram.BUCKETS - 1)].increment();
+    }
+
+    void decodeFailed() {
+        decodeFailures.increment();
+    }
+
+    void pendingQueries(int delta) {
+        pendingQueries.add(delta);
+    }
+
+    void batchedForwards(int delta) {
+        batchedForwards.add(delta);
+    }
+
+    @Override
+    public Snapshot snapshot() {
+        final Map<String, Traffic> traffic = new LinkedHashMap<>();
+        for (BungeeProtocol.Type type : TYPES) {
+            final int index = type.ordinal();
+            final long[] counts = new long[Histogram.BUCKETS];
+            for (int i = 0; i < counts.length; i++) counts[i] = roundTrips[index][i].sum();
+            traffic.put(type.name(), new Traffic(messagesOut[index].sum(), bytesOut[index].sum(),
+                    messagesIn[index].sum(), bytesIn[index].sum(), new Histogram(counts)));
+        }
+        final RateLimiter rateLimiter = Freight.rateLimiter();
+        return new Snapshot(traffic, decodeFailures.sum(), pendingQueries.sum(), batchedForwards.sum(),
+                rateLimiter == null ? 0 : rateLimiter.queued());
+    }
+
+    private static LongAdder[] adders(int length) {
+        final LongAdder[] adders = new LongAdder[length];
+        for (int i = 0; i < length; i++) adders[i] = new LongAdder();
+        return adders;
+    }
+}
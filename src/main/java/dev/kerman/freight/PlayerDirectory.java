@@ -0,0 +1,98 @@
+package dev.kerman.freight;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Bounded LRU directory of the players the proxy told us about.
+ * <p>
+ * Filled from the {@link BungeeResponse.UUIDOther} and {@link BungeeResponse.IPOther} responses, so it can answer
+ * {@link BungeeRequest.UUIDOther} and {@link BungeeRequest.IPOther} queries without the proxy.
+ * Player names are matched case-insensitively like the proxy does, answers use the name as last sent by the proxy.
+ */
+final class PlayerDirectory {
+    private final long ttlNanos;
+    private final LinkedHashMap<String, Entry> entries;
+
+    PlayerDirectory(int maxSize, Duration ttl) {
+        this.ttlNanos = ttl.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    // Answers the query from the directory, null if it has to be asked to the proxy
+    synchronized @Nullable BungeeResponse answer(BungeeRequest.Query<?> query) {
+        return switch (query) {
+            case BungeeRequest.UUIDOther(String playerName) -> {
+                final Entry entry = entries.get(key(playerName));
+                if (entry == null || entry.uuid == null || expired(entry.uuidStored)) yield null;
+                yield new BungeeResponse.UUIDOther(entry.name, entry.uuid);
+            }
+            case BungeeRequest.IPOther(String playerName) -> {
+                final Entry entry = entries.get(key(playerName));
+                if (entry == null || entry.ip == null || expired(entry.ipStored)) yield null;
+                yield new BungeeResponse.IPOther(entry.name, entry.ip, entry.port);
+            }
+            default -> null;
+        };
+    }
+
+    // Whether the responses of the type are recorded, so the others don't have to be decoded
+    static boolean records(BungeeProtocol.Type type) {
+        return type == BungeeProtocol.Type.UUIDOther || type == BungeeProtocol.Type.IPOther;
+    }
+
+    synchronized void record(BungeeResponse response) {
+        switch (response) {
+            case BungeeResponse.UUIDOther(String playerName, UUID uuid) -> {
+                final Entry entry = entry(playerName);
+                entry.uuid = uuid;
+                entry.uuidStored = System.nanoTime();
+            }
+            case BungeeResponse.IPOther(String playerName, String ip, int port) -> {
+                final Entry entry = entry(playerName);
+                entry.ip = ip;
+                entry.port = port;
+                entry.ipStored = System.nanoTime();
+            }
+            default -> {
+            }
+        }
+    }
+
+    synchronized void invalidate(String playerName) {
+        entries.remove(key(playerName));
+    }
+
+    private Entry entry(String playerName) {
+        final Entry entry = entries.computeIfAbsent(key(playerName), _ -> new Entry());
+        entry.name = playerName;
+        return entry;
+    }
+
+    private boolean expired(long stored) {
+        return System.nanoTime() - stored >= ttlNanos;
+    }
+
+    private static String key(String playerName) {
+        return playerName.toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Entry {
+        String name = "";
+        @Nullable UUID uuid;
+        long uuidStored;
+        @Nullable String ip;
+        int port;
+        long ipStored;
+    }
+}
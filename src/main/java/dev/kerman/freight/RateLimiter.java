@@ -0,0 +1,176 @@
+package dev.kerman.freight;
+
+import net.minestom.server.network.player.PlayerConnection;
+import org.jetbrains.annotations.Contract;
+
+import java.util.Objects;
+
+/**
+ * Token bucket rate limiter of the messages sent through each connection.
+ * <p>
+ * Every connection gets a bucket of {@link Builder#burst(int) burst} tokens, refilled at {@link Builder#rate(double) rate}
+ * tokens per second, and each message sent takes a token. Messages sent without a token available are queued,
+ * and sent in order as tokens come back. A connection can only queue so many messages, what happens to the
+ * messages over that limit is decided by the {@link Overflow overflow policy}.
+ * Forwards make room first, other messages are only dropped once the queue holds nothing else.
+ * The queries of a {@link BungeeClient} dropped or rejected this way complete exceptionally with an {@link IllegalStateException}
+ * instead of waiting for a response that never comes.
+ * <p>
+ * The limiter applies to every message sent by Freight once installed with {@link Freight#rateLimiter(RateLimiter)}:
+ * <pre>
+ * {@code
+ * Freight.rateLimiter(RateLimiter.builder()
+ *         .rate(100)
+ *         .burst(200)
+ *         .overflow(RateLimiter.Overflow.COALESCE)
+ *         .build());
+ * }
+ * </pre>
+ * Queued messages are sent from the timer thread of the limiter.
+ */
+public sealed interface RateLimiter permits RateLimiterImpl {
+    /**
+     * Creates a new builder for a rate limiter.
+     *
+     * @return a new builder
+     */
+    @Contract("-> new")
+    static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * The number of messages waiting for a token on the connection.
+     *
+     * @param connection the connection
+     * @return the number of messages queued on the connection
+     * @throws NullPointerException if {@code connection} is null
+     */
+    int queued(PlayerConnection connection);
+
+    /**
+     * The number of messages waiting for a token on every connection.
+     *
+     * @return the number of messages queued
+     */
+    int queued();
+
+    /**
+     * The number of queued messages dropped to make room for newer ones, see {@link Overflow#DROP_OLDEST}.
+     *
+     * @return the number of messages dropped
+     */
+    long dropped();
+
+    /**
+     * The number of messages refused because the queue was full, see {@link Overflow#REJECT}.
+     *
+     * @return the number of messages rejected
+     */
+    long rejected();
+
+    /**
+     * The number of queued messages replaced by a newer equivalent one, see {@link Overflow#COALESCE}.
+     *
+     * @return the number of messages coalesced
+     */
+    long coalesced();
+
+    /**
+     * What to do with a message sent while the queue of its connection is full.
+     */
+    enum Overflow {
+        /**
+         * Drops the oldest queued forward to make room for the new message, or the oldest message if no forward is queued.
+         */
+        DROP_OLDEST,
+        /**
+         * Refuses the new message, the queued ones are kept.
+         */
+        REJECT,
+        /**
+         * Replaces a queued forward equivalent to the new one, in place, and drops like {@link #DROP_OLDEST} if there is none.
+         * Forwards are equivalent when sent to the same destination on the same channel.
+         * <p>
+         * Coalescing happens whenever a message is queued, not only once the queue is full.
+         */
+        COALESCE
+    }
+
+    /**
+     * Builder for {@link RateLimiter}.
+     */
+    final class Builder {
+        double rate = 50;
+        int burst = 100;
+        int queueSize = 256;
+        Overflow overflow = Overflow.DROP_OLDEST;
+
+        Builder() {
+        }
+
+        /**
+         * Sets how many tokens a connection gets back per second. Defaults to 50.
+         *
+         * @param rate the tokens per second, must be positive
+         * @return this builder
+         * @throws IllegalArgumentException if the rate is not positive
+         */
+        @Contract("_ -> this")
+        public Builder rate(double rate) {
+            if (!(rate > 0)) throw new IllegalArgumentException("Rate must be positive");
+            this.rate = rate;
+            return this;
+        }
+
+        /**
+         * Sets how many tokens a connection can hold, the number of messages it can send at once. Defaults to 100.
+         *
+         * @param burst the maximum number of tokens, must be positive
+         * @return this builder
+         * @throws IllegalArgumentException if the burst is not positive
+         */
+        @Contract("_ -> this")
+        public Builder burst(int burst) {
+            if (burst <= 0) throw new IllegalArgumentException("Burst must be positive");
+            this.burst = burst;
+            return this;
+        }
+
+        /**
+         * Sets how many messages a connection can queue. Defaults to 256.
+         *
+         * @param size the maximum number of queued messages, must be positive
+         * @return this builder
+         * @throws IllegalArgumentException if the size is not positive
+         */
+        @Contract("_ -> this")
+        public Builder queueSize(int size) {
+            if (size <= 0) throw new IllegalArgumentException("Queue size must be positive");
+            this.queueSize = size;
+            return this;
+        }
+
+        /**
+         * Sets what to do with the messages sent while the queue is full. Defaults to {@link Overflow#DROP_OLDEST}.
+         *
+         * @param overflow the overflow policy
+         * @return this builder
+         */
+        @Contract("_ -> this")
+        public Builder overflow(Overflow overflow) {
+            this.overflow = Objects.requireNonNull(overflow, "Overflow cannot be null");
+            return this;
+        }
+
+        /**
+         * Builds the rate limiter.
+         *
+         * @return a new rate limiter
+         */
+        @Contract("-> new")
+        public RateLimiter build() {
+            return new RateLimiterImpl(this);
+        }
+    }
+}
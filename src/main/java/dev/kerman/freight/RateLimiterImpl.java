@@ -0,0 +1,302 @@
+package dev.kerman.freight;
+
+import net.minestom.server.network.packet.server.SendablePacket;
+import net.minestom.server.network.player.PlayerConnection;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+final class RateLimiterImpl implements RateLimiter {
+    private static final long SWEEP_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    private final double tokensPerNano;
+    private final int burst;
+    private final int queueSize;
+    private final Overflow overflow;
+    private final TimeoutWheel wheel = new TimeoutWheel("Freight-RateLimit", Duration.ofMillis(5), 256);
+    private final Map<PlayerConnection, Bucket> buckets = new ConcurrentHashMap<>();
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private volatile boolean closed;
+    private volatile @Nullable RateLimiterImpl successor;
+
+    RateLimiterImpl(RateLimiter.Builder builder) {
+        this.tokensPerNano = builder.rate / TimeUnit.SECONDS.toNanos(1);
+        this.burst = builder.burst;
+        this.queueSize = builder.queueSize;
+        this.overflow = builder.overflow;
+    }
+
+    // The key tells which queued packet the new one can replace when coalescing, packets without one are never coalesced.
+    // The drop callback is run once the packet is dropped or rejected, outside the lock of its bucket.
+    void send(PlayerConnection connection, SendablePacket packet, @Nullable Object key, @Nullable Runnable onDrop) {
+        send(connection, packet, key, onDrop, true);
+    }
+
+    // Never dropped nor counted against the queue size, only delayed: the sender bounds how many it has queued,
+    // like the window of a transfer, and can't recover from a lost packet.
+    void delay(PlayerConnection connection, SendablePacket packet) {
+        send(connection, packet, null, null, false);
+    }
+
+    private void send(PlayerConnection connection, SendablePacket packet, @Nullable Object key, @Nullable Runnable onDrop,
+                      boolean droppable) {
+        if (closed) {
+            handOver(connection, packet, key, onDrop, droppable);
+            return;
+        }
+        Bucket bucket = buckets.get(connection);
+        if (bucket == null) {
+            bucket = buckets.computeIfAbsent(connection, Bucket::new);
+            if (sweeping.compareAndSet(false, true)) schedule(this::sweep, SWEEP_NANOS);
+        }
+        final Runnable failed = bucket.send(packet, key, onDrop, droppable);
+        if (failed != null) failed.run();
+    }
+
+    boolean closed() {
+        return closed;
+    }
+
+    // Hands the queued packets, and the ones still sent through this limiter, over to the next one,
+    // or sends them right away if there is none.
+    void close(@Nullable RateLimiterImpl successor) {
+        this.successor = successor;
+        this.closed = true;
+        for (Bucket bucket : buckets.values()) bucket.handOver();
+        wheel.close();
+    }
+
+    private void handOver(PlayerConnection connection, SendablePacket packet, @Nullable Object key, @Nullable Runnable onDrop,
+                          boolean droppable) {
+        final RateLimiterImpl successor = this.successor;
+        if (successor == null) connection.sendPacket(packet);
+        else successor.send(connection, packet, key, onDrop, droppable);
+    }
+
+    // The wheel may have been closed by a concurrent close, which hands every queued packet over anyway.
+    private void schedule(Runnable task, long delayNanos) {
+        try {
+            wheel.schedule(task, delayNanos);
+        } catch (IllegalStateException ignored) {
+        }
+    }
+
+    @Override
+    public int queued(PlayerConnection connection) {
+        Objects.requireNonNull(connection, "Connection cannot be null");
+        final Bucket bucket = buckets.get(connection);
+        return bucket == null ? 0 : bucket.queued();
+    }
+
+    @Override
+    public int queued() {
+        return queued.get();
+    }
+
+    @Override
+    public long dropped() {
+        return dropped.sum();
+    }
+
+    @Override
+    public long rejected() {
+        return rejected.sum();
+    }
+
+    @Override
+    public long coalesced() {
+        return coalesced.sum();
+    }
+
+    // Forgets the buckets of the connections gone, the others are kept to remember their tokens.
+    private void sweep() {
+        for (Bucket bucket : buckets.values()) {
+            if (!bucket.connection.isOnline()) bucket.discard();
+        }
+        sweeping.set(false);
+        if (!buckets.isEmpty() && sweeping.compareAndSet(false, true)) schedule(this::sweep, SWEEP_NANOS);
+    }
+
+    // Coalesces forwards by destination and channel, their data being the latest state.
+    // Envelopes pack forwards of their own, so they never replace each other.
+    // Other messages get no key: two equal queries each wait for a response of their own.
+    static @Nullable Object key(BungeeMessage message) {
+        return switch (message) {
+            case BungeeRequest.Forward forward when forward.channel().equals(ForwardBatcher.ENVELOPE_CHANNEL) ->
+                    new Object();
+            case BungeeRequest.ForwardToPlayer forward when forward.channel().equals(ForwardBatcher.ENVELOPE_CHANNEL) ->
+                    new Object();
+            case BungeeRequest.Forward(String serverName, String channel, byte[] _) ->
+                    forwardKey(BungeeProtocol.Type.Forward, serverName, channel);
+            case BungeeRequest.ForwardToPlayer(String playerName, String channel, byte[] _) ->
+                    forwardKey(BungeeProtocol.Type.ForwardToPlayer, playerName, channel);
+            default -> null;
+        };
+    }
+
+    static Object forwardKey(BungeeProtocol.Type type, String target, String channel) {
+        return new ForwardKey(type, target, channel);
+    }
+
+    private record ForwardKey(BungeeProtocol.Type type, String target, String channel) {
+    }
+
+    private static final class Queued {
+        SendablePacket packet;
+        final @Nullable Object key;
+        final @Nullable Runnable onDrop;
+        final boolean droppable;
+
+        Queued(SendablePacket packet, @Nullable Object key, @Nullable Runnable onDrop, boolean droppable) {
+            this.packet = packet;
+            this.key = key;
+            this.onDrop = onDrop;
+            this.droppable = droppable;
+        }
+    }
+
+    private final class Bucket {
+        final PlayerConnection connection;
+        private final ArrayDeque<Queued> queue = new ArrayDeque<>();
+        // The queued forwards by key when coalescing, to find the one to replace without scanning the queue
+        private final Map<Object, Queued> keyed = new HashMap<>();
+        // The queued packets which are only delayed, left out of the queue size
+        private int delayed;
+        private double tokens = burst;
+        private long refilled = System.nanoTime();
+        private boolean draining;
+
+        Bucket(PlayerConnection connection) {
+            this.connection = connection;
+        }
+
+        synchronized int queued() {
+            return queue.size();
+        }
+
+        // Returns the drop callback to run, of the new packet if rejected or of the queued one dropped for it.
+        synchronized @Nullable Runnable send(SendablePacket packet, @Nullable Object key, @Nullable Runnable onDrop,
+                                             boolean droppable) {
+            if (closed) {
+                RateLimiterImpl.this.handOver(connection, packet, key, onDrop, droppable);
+                return null;
+            }
+            refill();
+            if (queue.isEmpty() && tokens >= 1) {
+                tokens--;
+                connection.sendPacket(packet);
+                return null;
+            }
+            if (key != null && overflow == Overflow.COALESCE) {
+                final Queued equivalent = keyed.get(key);
+                if (equivalent != null) {
+                    equivalent.packet = packet;
+                    coalesced.increment();
+                    return null;
+                }
+            }
+            Runnable failed = null;
+            if (droppable && queue.size() - delayed >= queueSize) {
+                if (overflow == Overflow.REJECT) {
+                    rejected.increment();
+                    return onDrop;
+                }
+                failed = dropOldest();
+            }
+            final Queued entry = new Queued(packet, key, onDrop, droppable);
+            queue.add(entry);
+            if (!droppable) delayed++;
+            if (key != null && overflow == Overflow.COALESCE) keyed.put(key, entry);
+            queued.incrementAndGet();
+            schedule();
+            return failed;
+        }
+
+        // Forwards make room first, other messages are only dropped when nothing else is queued.
+        private @Nullable Runnable dropOldest() {
+            Queued oldest = null;
+            for (Queued entry : queue) {
+                if (entry.key != null) {
+                    oldest = entry;
+                    break;
+                }
+                if (oldest == null && entry.droppable) oldest = entry;
+            }
+            if (oldest == null) return null; // Only delayed packets, which the queue size leaves out
+            queue.remove(oldest);
+            forget(oldest);
+            queued.decrementAndGet();
+            dropped.increment();
+            return oldest.onDrop;
+        }
+
+        private void forget(Queued entry) {
+            if (entry.key != null) keyed.remove(entry.key, entry);
+            if (!entry.droppable) delayed--;
+        }
+
+        private void schedule() {
+            if (draining) return;
+            draining = true;
+            final long delay = (long) Math.ceil((1 - tokens) / tokensPerNano);
+            RateLimiterImpl.this.schedule(this::drain, delay);
+        }
+
+        private synchronized void drain() {
+            draining = false;
+            if (closed) return;
+            if (!connection.isOnline()) {
+                discard();
+                return;
+            }
+            refill();
+            while (tokens >= 1 && !queue.isEmpty()) {
+                tokens--;
+                queued.decrementAndGet();
+                final Queued entry = queue.poll();
+                forget(entry);
+                connection.sendPacket(entry.packet);
+            }
+            if (!queue.isEmpty()) schedule();
+        }
+
+        private void refill() {
+            final long now = System.nanoTime();
+            tokens = Math.min(burst, tokens + (now - refilled) * tokensPerNano);
+            refilled = now;
+        }
+
+        synchronized void discard() {
+            queued.addAndGet(-queue.size());
+            queue.clear();
+            keyed.clear();
+            delayed = 0;
+            buckets.remove(connection, this);
+        }
+
+        synchronized void handOver() {
+            Queued entry;
+            while ((entry = queue.poll()) != null) {
+                queued.decrementAndGet();
+                if (connection.isOnline())
+                    RateLimiterImpl.this.handOver(connection, entry.packet, entry.key, entry.onDrop, entry.droppable);
+            }
+            keyed.clear();
+            delayed = 0;
+            buckets.remove(connection, this);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package dev.kerman.freight;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded LRU cache of responses keyed by their query.
+ * <p>
+ * Entries live for the time to live of their type. Once an entry is past {@link #REFRESH_AHEAD} of its life,
+ * the first lookup claims a refresh, so a single query goes out while every caller is still served the cached response.
+ */
+final class ResponseCache {
+    static final double REFRESH_AHEAD = 0.75;
+
+    // Indexed by type ordinal, zero meaning the type isn't cached
+    private final long[] ttlNanos = new long[BungeeProtocol.Type.values().length];
+    private final long[] refreshNanos = new long[ttlNanos.length];
+    private final LinkedHashMap<BungeeRequest.Query<?>, Entry> entries;
+
+    ResponseCache(Map<BungeeProtocol.Type, Duration> ttl, int maxSize) {
+        for (Map.Entry<BungeeProtocol.Type, Duration> entry : ttl.entrySet()) {
+            final int ordinal = entry.getKey().ordinal();
+            ttlNanos[ordinal] = entry.getValue().toNanos();
+            refreshNanos[ordinal] = (long) (ttlNanos[ordinal] * REFRESH_AHEAD);
+        }
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<BungeeRequest.Query<?>, Entry> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    boolean cached(BungeeRequest.Query<?> query) {
+        return ttlNanos[BungeeProtocol.Type.toType(query).ordinal()] != 0;
+    }
+
+    // Returns the live entry of the query, or null if there is none
+    synchronized @Nullable Entry get(BungeeRequest.Query<?> query) {
+        final Entry entry = entries.get(query);
+        if (entry == null) return null;
+        if (System.nanoTime() - entry.stored >= ttlNanos[entry.type]) {
+            entries.remove(query);
+            return null;
+        }
+        return entry;
+    }
+
+    // Claims the refresh of the entry, only true for the first caller once the entry is due for a refresh
+    synchronized boolean claimRefresh(Entry entry) {
+        if (entry.refreshing || System.nanoTime() - entry.stored < refreshNanos[entry.type]) return false;
+        entry.refreshing = true;
+        return true;
+    }
+
+    // Allows another refresh after a failed one
+    synchronized void releaseRefresh(Entry entry) {
+        entry.refreshing = false;
+    }
+
+    synchronized void put(BungeeRequest.Query<?> query, BungeeResponse response) {
+        final int type = BungeeProtocol.Type.toType(query).ordinal();
+        if (ttlNanos[type] == 0) return;
+        entries.put(query, new Entry(response, type, System.nanoTime()));
+    }
+
+    static final class Entry {
+        final BungeeResponse response;
+        private final int type;
+        private final long stored;
+        private boolean refreshing;
+
+        private Entry(BungeeResponse response, int type, long stored) {
+            this.response = response;
+            this.type = type;
+            this.stored = stored;
+        }
+    }
+}
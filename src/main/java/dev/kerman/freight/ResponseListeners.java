@@ -0,0 +1,98 @@
+package dev.kerman.freight;
+
+import net.minestom.server.entity.Player;
+import net.minestom.server.event.EventFilter;
+import net.minestom.server.event.EventNode;
+import net.minestom.server.event.player.PlayerEvent;
+import net.minestom.server.event.player.PlayerPluginMessageEvent;
+import net.minestom.server.network.NetworkBuffer;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+// The listeners of each type of response, copied on write so dispatching never locks.
+final class ResponseListeners {
+    private final EventNode<PlayerEvent> eventNode = EventNode.type("freight-listeners", EventFilter.PLAYER);
+    private volatile Map<BungeeProtocol.Type, BiConsumer<Player, BungeeResponse>[]> listeners = new EnumMap<>(BungeeProtocol.Type.class);
+
+    ResponseListeners() {
+        eventNode.addListener(PlayerPluginMessageEvent.class, event -> {
+            if (BungeeMessage.isIdentifier(event.getIdentifier())) dispatch(event.getPlayer(), event.getMessage());
+        });
+    }
+
+    EventNode<PlayerEvent> eventNode() {
+        return eventNode;
+    }
+
+    @SuppressWarnings("unchecked")
+    synchronized void add(Class<? extends BungeeResponse> type, BiConsumer<Player, ?> handler) {
+        final BungeeProtocol.Type key = type(type);
+        final Map<BungeeProtocol.Type, BiConsumer<Player, BungeeResponse>[]> listeners = new EnumMap<>(this.listeners);
+        final BiConsumer<Player, BungeeResponse>[] current = listeners.get(key);
+        final BiConsumer<Player, BungeeResponse>[] updated = current == null
+                ? new BiConsumer[1] : Arrays.copyOf(current, current.length + 1);
+        updated[updated.length - 1] = (BiConsumer<Player, BungeeResponse>) handler; // Only given responses of its type
+        listeners.put(key, updated);
+        this.listeners = listeners;
+    }
+
+    synchronized boolean remove(Class<? extends BungeeResponse> type, BiConsumer<Player, ?> handler) {
+        final BungeeProtocol.Type key = type(type);
+        final BiConsumer<Player, BungeeResponse>[] current = this.listeners.get(key);
+        if (current == null) return false;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] != handler) continue;
+            final Map<BungeeProtocol.Type, BiConsumer<Player, BungeeResponse>[]> listeners = new EnumMap<>(this.listeners);
+            if (current.length == 1) {
+                listeners.remove(key);
+            } else {
+                final BiConsumer<Player, BungeeResponse>[] updated = Arrays.copyOf(current, current.length - 1);
+                System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+                listeners.put(key, updated);
+            }
+            this.listeners = listeners;
+            return true;
+        }
+        return false;
+    }
+
+    boolean listens(BungeeProtocol.Type type) {
+        return listeners.containsKey(type);
+    }
+
+    // Reads the tag alone first, which is all the metrics need, the body is only decoded once someone listens to its type.
+    void dispatch(Player player, byte[] message) {
+        final NetworkBuffer buffer = NetworkBuffer.wrap(message, 0, message.length);
+        final BungeeProtocol.Type type = buffer.read(BungeeProtocol.Type.RESPONSE_SERIALIZER);
+        MetricsImpl.INSTANCE.received(type, message.length);
+        final BiConsumer<Player, BungeeResponse>[] listeners = this.listeners.get(type);
+        if (listeners == null) return;
+        final BungeeResponse response = BungeeProtocol.read(buffer, type.responseSerializer(), player.getPlayerConnection());
+        if (response instanceof BungeeResponse.Forward forward && forward.isEnvelope()) {
+            // Listeners get the forwards of an envelope one by one, as if they weren't batched
+            for (BungeeResponse.Forward packed : forward.unpack()) {
+                for (BiConsumer<Player, BungeeResponse> listener : listeners) listener.accept(player, packed);
+            }
+            return;
+        }
+        for (BiConsumer<Player, BungeeResponse> listener : listeners) listener.accept(player, response);
+    }
+
+    private static BungeeProtocol.Type type(Class<? extends BungeeResponse> type) {
+        if (type == BungeeResponse.IP.class) return BungeeProtocol.Type.IP;
+        if (type == BungeeResponse.IPOther.class) return BungeeProtocol.Type.IPOther;
+        if (type == BungeeResponse.PlayerCount.class) return BungeeProtocol.Type.PlayerCount;
+        if (type == BungeeResponse.PlayerList.class) return BungeeProtocol.Type.PlayerList;
+        if (type == BungeeResponse.GetServers.class) return BungeeProtocol.Type.GetServers;
+        if (type == BungeeResponse.GetServer.class) return BungeeProtocol.Type.GetServer;
+        if (type == BungeeResponse.GetPlayerServer.class) return BungeeProtocol.Type.GetPlayerServer;
+        if (type == BungeeResponse.UUID.class) return BungeeProtocol.Type.UUID;
+        if (type == BungeeResponse.UUIDOther.class) return BungeeProtocol.Type.UUIDOther;
+        if (type == BungeeResponse.ServerIP.class) return BungeeProtocol.Type.ServerIp;
+        if (type == BungeeResponse.Forward.class) return BungeeProtocol.Type.Forward;
+        throw new IllegalArgumentException("%s is not a type of response".formatted(type.getName()));
+    }
+}
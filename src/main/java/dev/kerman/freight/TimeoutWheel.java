@@ -0,0 +1,195 @@
+package dev.kerman.freight;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hashed wheel timer used to expire outstanding requests.
+ * <p>
+ * Scheduling and cancelling are O(1), the price is that timeouts only fire with the precision of a single tick.
+ * New timeouts are handed to the worker thread through a queue, so only the worker ever touches the buckets.
+ * Cancelled timeouts are unlinked lazily the next time the worker visits their bucket.
+ */
+final class TimeoutWheel implements AutoCloseable {
+    private static final int PENDING = 0;
+    private static final int CANCELLED = 1;
+    private static final int EXPIRED = 2;
+
+    private final String name;
+    private final long tickNanos;
+    private final Bucket[] buckets;
+    private final int mask;
+    private final Queue<Timeout> scheduled = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean started = new AtomicBoolean();
+    private volatile boolean running = true;
+    private volatile long startNanos;
+    private @Nullable Thread worker;
+
+    TimeoutWheel(String name, Duration tick, int bucketCount) {
+        this.name = Objects.requireNonNull(name, "Name cannot be null");
+        Objects.requireNonNull(tick, "Tick cannot be null");
+        if (tick.isNegative() || tick.isZero()) throw new IllegalArgumentException("Tick must be positive");
+        if (bucketCount <= 0) throw new IllegalArgumentException("Bucket count must be positive");
+        this.tickNanos = tick.toNanos();
+        // Round up to a power of two so the bucket index is a mask instead of a modulo.
+        final int size = Integer.highestOneBit(bucketCount - 1) << 1;
+        this.buckets = new Bucket[Math.max(1, size)];
+        for (int i = 0; i < buckets.length; i++) buckets[i] = new Bucket();
+        this.mask = buckets.length - 1;
+    }
+
+    /**
+     * Schedules the task to run on the timer thread once the delay has passed.
+     *
+     * @param task       the task to run
+     * @param delayNanos the delay in nanoseconds
+     * @return the timeout handle, used to cancel it
+     * @throws IllegalStateException if the timer was closed
+     */
+    Timeout schedule(Runnable task, long delayNanos) {
+        Objects.requireNonNull(task, "Task cannot be null");
+        if (!running) throw new IllegalStateException("Timer is closed");
+        start();
+        final Timeout timeout = new Timeout(task, System.nanoTime() + Math.max(0, delayNanos));
+        scheduled.add(timeout);
+        return timeout;
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        final Thread thread = worker;
+        if (thread != null) LockSupport.unpark(thread);
+    }
+
+    private void start() {
+        if (started.get() || !started.compareAndSet(false, true)) return;
+        this.startNanos = System.nanoTime();
+        final Thread thread = Thread.ofPlatform().name(name).daemon().unstarted(this::run);
+        this.worker = thread;
+        thread.start();
+    }
+
+    private void run() {
+        final long start = startNanos;
+        long tick = 0;
+        while (running) {
+            final long deadline = start + (tick + 1) * tickNanos;
+            long sleep;
+            while ((sleep = deadline - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(this, sleep);
+                if (!running) return;
+            }
+            transfer(start, tick);
+            buckets[(int) (tick & mask)].expire();
+            tick++;
+        }
+    }
+
+    // Moves freshly scheduled timeouts into their buckets, only called from the worker thread.
+    private void transfer(long start, long tick) {
+        Timeout timeout;
+        while ((timeout = scheduled.poll()) != null) {
+            if (timeout.state != PENDING) continue;
+            final long target = Math.max(tick, (timeout.deadline - start) / tickNanos);
+            timeout.rounds = (target - tick) / buckets.length;
+            buckets[(int) (target & mask)].add(timeout);
+        }
+    }
+
+    static final class Timeout {
+        private static final VarHandle STATE;
+
+        static {
+            try {
+                STATE = MethodHandles.lookup().findVarHandle(Timeout.class, "state", int.class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        private final Runnable task;
+        private final long deadline;
+        private volatile int state = PENDING;
+        // Only accessed by the worker thread
+        private long rounds;
+        private @Nullable Timeout prev;
+        private @Nullable Timeout next;
+
+        private Timeout(Runnable task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        /**
+         * Cancels the timeout.
+         *
+         * @return true if the timeout was cancelled, false if it already expired or was cancelled
+         */
+        boolean cancel() {
+            return STATE.compareAndSet(this, PENDING, CANCELLED);
+        }
+
+        private boolean expire() {
+            return STATE.compareAndSet(this, PENDING, EXPIRED);
+        }
+    }
+
+    // Intrusive doubly linked list, only accessed by the worker thread.
+    private static final class Bucket {
+        private @Nullable Timeout head;
+        private @Nullable Timeout tail;
+
+        void add(Timeout timeout) {
+            timeout.prev = tail;
+            timeout.next = null;
+            if (tail == null) head = timeout;
+            else tail.next = timeout;
+            tail = timeout;
+        }
+
+        void expire() {
+            Timeout timeout = head;
+            while (timeout != null) {
+                final Timeout next = timeout.next;
+                if (timeout.state != PENDING) {
+                    remove(timeout);
+                } else if (timeout.rounds <= 0) {
+                    remove(timeout);
+                    if (timeout.expire()) run(timeout.task);
+                } else {
+                    timeout.rounds--;
+                }
+                timeout = next;
+            }
+        }
+
+        private void remove(Timeout timeout) {
+            final Timeout prev = timeout.prev, next = timeout.next;
+            if (prev == null) head = next;
+            else prev.next = next;
+            if (next == null) tail = prev;
+            else next.prev = prev;
+            timeout.prev = null;
+            timeout.next = null;
+        }
+
+        private static void run(Runnable task) {
+            try {
+                task.run();
+            } catch (Throwable throwable) {
+                // Keep the wheel turning, the thread handler decides what to do with it.
+                final Thread thread = Thread.currentThread();
+                thread.getUncaughtExceptionHandler().uncaughtException(thread, throwable);
+            }
+        }
+    }
+}
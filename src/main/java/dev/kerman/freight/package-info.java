@@ -9,6 +9,12 @@
  *   <li>{@link dev.kerman.freight.BungeeMessage}</li>
  *   <li>{@link dev.kerman.freight.BungeeRequest}</li>
  *   <li>{@link dev.kerman.freight.BungeeResponse}</li>
+ *   <li>{@link dev.kerman.freight.BungeeClient}</li>
+ *   <li>{@link dev.kerman.freight.ForwardRouter}</li>
+ *   <li>{@link dev.kerman.freight.BulkTransfer}</li>
+ *   <li>{@link dev.kerman.freight.ForwardBatcher}</li>
+ *   <li>{@link dev.kerman.freight.Freight}</li>
+ *   <li>{@link dev.kerman.freight.Metrics}</li>
  * </ul>
  */
 @NotNullByDefault
@@ -3,6 +3,7 @@
  */
 module dev.kerman.freight {
     requires static org.jetbrains.annotations;
+    requires jdk.jfr;
     requires net.minestom.server;
     requires net.kyori.adventure.text.serializer.gson;
     requires net.kyori.adventure.text.serializer.legacy;
@@ -0,0 +1,114 @@
+package dev.kerman.freight.test;
+
+import com.sun.management.ThreadMXBean;
+import dev.kerman.freight.BungeeMessage;
+import dev.kerman.freight.BungeeRequest;
+import dev.kerman.freight.BungeeResponse;
+import net.minestom.server.network.NetworkBuffer;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Checks the bytes allocated per operation by the hot codec paths, once the JIT has compiled them.
+ * <p>
+ * The cost of the NetworkBuffer wrapping or building the bytes belongs to Minestom and depends on the JVM,
+ * so it is measured when the test runs, the same way as the paths themselves. Budgets are that measured base,
+ * plus one {@link #PAYLOAD_COPY} per copy of the payload the path needs and a small margin for the objects Freight adds,
+ * the result and its strings. A single extra payload copy, or an intermediate String, goes over budget.
+ */
+public final class AllocationBudgetTest {
+    private static final int WARMUP = 50_000;
+    private static final int ITERATIONS = 10_000;
+    private static final int PAYLOAD = 4096;
+    // The payload array with its header
+    private static final int PAYLOAD_COPY = PAYLOAD + 16;
+    // Room for objects the JIT may not eliminate when it isn't fully warm, like a disabled JFR event
+    private static final int MARGIN = 64;
+
+    private static final ThreadMXBean THREADS = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+    // Keeps the results reachable so they can't be optimized away
+    private static volatile Object sink;
+
+    // Measured bytes per operation of wrapping an array for reading, and of making an array of a 4 bytes value
+    private static long wrapping;
+    private static long making;
+
+    @BeforeAll
+    static void supported() {
+        assumeTrue(THREADS.isThreadAllocatedMemorySupported(), "Thread allocation counters are not supported");
+        THREADS.setThreadAllocatedMemoryEnabled(true);
+        var bytes = new byte[4];
+        wrapping = measure(() -> NetworkBuffer.wrap(bytes, 0, bytes.length));
+        making = measure(() -> NetworkBuffer.makeArray(NetworkBuffer.INT, 0));
+    }
+
+    private static long measure(Supplier<?> supplier) {
+        for (int i = 0; i < WARMUP; i++) sink = supplier.get();
+        final long before = THREADS.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < ITERATIONS; i++) sink = supplier.get();
+        return (THREADS.getCurrentThreadAllocatedBytes() - before) / ITERATIONS;
+    }
+
+    private static void assertBudget(String operation, long budget, Supplier<?> supplier) {
+        final long perOperation = measure(supplier);
+        assertTrue(perOperation <= budget,
+                "%s allocated %d bytes per operation, over its budget of %d".formatted(operation, perOperation, budget));
+    }
+
+    @Test
+    void testForward() {
+        var request = new BungeeRequest.Forward(BungeeMessage.ALL, "sync", new byte[PAYLOAD]);
+        var requestBytes = BungeeMessage.writeRequest(request);
+        var responseBytes = BungeeMessage.writeResponse(new BungeeResponse.Forward("sync", new byte[PAYLOAD]));
+        // Decoding copies the payload once out of the message, encoding once into the message.
+        // A decoded String costs its bytes twice, once read and once in the String
+        assertBudget("Forward request decoding", wrapping + PAYLOAD_COPY + 192 + MARGIN, () -> BungeeMessage.readRequest(requestBytes));
+        assertBudget("Forward response decoding", wrapping + PAYLOAD_COPY + 96 + MARGIN, () -> BungeeMessage.readResponse(responseBytes));
+        assertBudget("Forward encoding", making + PAYLOAD_COPY + 32 + MARGIN, () -> BungeeMessage.writeRequest(request));
+    }
+
+    @Test
+    void testUUID() {
+        var response = new BungeeResponse.UUID(UUID.randomUUID());
+        var bytes = BungeeMessage.writeResponse(response);
+        // The record and its java.util.UUID, the digits are parsed without any String
+        assertBudget("UUID decoding", wrapping + 48 + MARGIN, () -> BungeeMessage.readResponse(bytes));
+        assertBudget("UUID encoding", making + 48 + MARGIN, () -> BungeeMessage.writeResponse(response));
+    }
+
+    @Test
+    void testPlayerCount() {
+        var response = new BungeeResponse.PlayerCount("lobby", 120);
+        var bytes = BungeeMessage.writeResponse(response);
+        var request = new BungeeRequest.PlayerCount("lobby");
+        var requestBytes = BungeeMessage.writeRequest(request);
+        // The record and the server name, the type tag is matched without any String
+        assertBudget("PlayerCount response decoding", wrapping + 96 + MARGIN, () -> BungeeMessage.readResponse(bytes));
+        assertBudget("PlayerCount request decoding", wrapping + 96 + MARGIN, () -> BungeeMessage.readRequest(requestBytes));
+        assertBudget("PlayerCount response encoding", making + 32 + MARGIN, () -> BungeeMessage.writeResponse(response));
+        assertBudget("PlayerCount request encoding", making + 32 + MARGIN, () -> BungeeMessage.writeRequest(request));
+    }
+
+    @Test
+    void testParameterless() {
+        var buffer = NetworkBuffer.resizableBuffer();
+        BungeeRequest.SERIALIZER.write(buffer, BungeeRequest.IP.INSTANCE);
+        // Decoded to the shared instance from the tag, encoded from the pre-encoded tag, nothing but the margin
+        assertBudget("IP request decoding", MARGIN, () -> {
+            buffer.readIndex(0);
+            return BungeeMessage.readRequest(buffer);
+        });
+        assertBudget("IP request encoding", MARGIN, () -> {
+            buffer.writeIndex(0);
+            BungeeRequest.SERIALIZER.write(buffer, BungeeRequest.IP.INSTANCE);
+            return buffer;
+        });
+    }
+}
@@ -0,0 +1,176 @@
+package dev.kerman.freight.test;
+
+import dev.kerman.freight.BulkTransfer;
+import dev.kerman.freight.BungeeMessage;
+import dev.kerman.freight.BungeeRequest;
+import dev.kerman.freight.BungeeResponse;
+import dev.kerman.freight.Freight;
+import dev.kerman.freight.RateLimiter;
+import net.minestom.server.coordinate.Pos;
+import net.minestom.server.entity.Player;
+import net.minestom.server.event.player.PlayerPluginMessageEvent;
+import net.minestom.server.network.NetworkBuffer;
+import net.minestom.server.network.packet.server.common.PluginMessagePacket;
+import net.minestom.testing.Env;
+import net.minestom.testing.EnvTest;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Random;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@EnvTest
+public final class BulkTransferTest {
+
+    @Test
+    void testTransfer(Env env) {
+        var received = new ArrayList<byte[]>();
+        try (var lobby = BulkTransfer.builder("state", "lobby").fragmentSize(16 * 1024).window(4).build();
+             var game = BulkTransfer.builder("state", "game").receiver((origin, payload) -> {
+                 assertEquals("lobby", origin);
+                 received.add(payload);
+             }).build()) {
+            var instance = env.createFlatInstance();
+            var lobbyConnection = env.createConnection();
+            var gameConnection = env.createConnection();
+            var lobbyPlayer = lobbyConnection.connect(instance, new Pos(0, 64, 0));
+            var gamePlayer = gameConnection.connect(instance, new Pos(0, 64, 0));
+            var payload = new byte[200_000];
+            new Random(42).nextBytes(payload);
+
+            var toGame = lobbyConnection.trackIncoming(PluginMessagePacket.class);
+            var future = lobby.send(lobbyPlayer, "game", payload);
+            var first = toGame.collect();
+            assertEquals(4, first.size(), "Only a window of fragments should be sent before acknowledgements");
+            toGame = lobbyConnection.trackIncoming(PluginMessagePacket.class);
+            var toLobby = gameConnection.trackIncoming(PluginMessagePacket.class);
+            deliver(game, gamePlayer, first);
+            for (int round = 0; !future.isDone() && round < 100; round++) {
+                var acknowledgements = toLobby.collect();
+                toLobby = gameConnection.trackIncoming(PluginMessagePacket.class);
+                deliver(lobby, lobbyPlayer, acknowledgements);
+                var fragments = toGame.collect();
+                toGame = lobbyConnection.trackIncoming(PluginMessagePacket.class);
+                deliver(game, gamePlayer, fragments);
+            }
+            deliver(lobby, lobbyPlayer, toLobby.collect());
+
+            assertTrue(future.isDone(), "Every fragment should be acknowledged");
+            future.join();
+            assertEquals(1, received.size());
+            assertArrayEquals(payload, received.getFirst());
+            assertEquals(0, lobby.pending());
+        }
+    }
+
+    @Test
+    void testRateLimited(Env env) throws InterruptedException {
+        var limiter = RateLimiter.builder().rate(1000).burst(1).queueSize(1).build();
+        Freight.rateLimiter(limiter);
+        var received = new ArrayList<byte[]>();
+        try (var lobby = BulkTransfer.builder("state", "lobby").fragmentSize(8 * 1024).window(4).build();
+             var game = BulkTransfer.builder("state", "game").receiver((_, payload) -> received.add(payload)).build()) {
+            var instance = env.createFlatInstance();
+            var lobbyConnection = env.createConnection();
+            var gameConnection = env.createConnection();
+            var lobbyPlayer = lobbyConnection.connect(instance, new Pos(0, 64, 0));
+            var gamePlayer = gameConnection.connect(instance, new Pos(0, 64, 0));
+            var payload = new byte[100_000];
+            new Random(42).nextBytes(payload);
+
+            var toGame = lobbyConnection.trackIncoming(PluginMessagePacket.class);
+            var toLobby = gameConnection.trackIncoming(PluginMessagePacket.class);
+            var future = lobby.send(lobbyPlayer, "game", payload);
+            // Forwards sent meanwhile fill the queue, they are dropped instead of the fragments
+            for (int i = 0; i < 3; i++)
+                BungeeMessage.send(lobbyPlayer.getPlayerConnection(), new BungeeRequest.Forward("game", "noise" + i, new byte[0]));
+            for (int round = 0; !future.isDone() && round < 200; round++) {
+                while (limiter.queued() > 0) Thread.sleep(5);
+                var fragments = toGame.collect();
+                toGame = lobbyConnection.trackIncoming(PluginMessagePacket.class);
+                deliver(game, gamePlayer, fragments);
+                while (limiter.queued() > 0) Thread.sleep(5);
+                var acknowledgements = toLobby.collect();
+                toLobby = gameConnection.trackIncoming(PluginMessagePacket.class);
+                deliver(lobby, lobbyPlayer, acknowledgements);
+            }
+
+            assertTrue(future.isDone(), "A rate limited transfer should be delayed, never stalled");
+            future.join();
+            assertArrayEquals(payload, received.getFirst());
+            assertEquals(2, limiter.dropped(), "Only the forwards over the queue size should be dropped");
+        } finally {
+            Freight.rateLimiter(null);
+        }
+    }
+
+    @Test
+    void testAborted(Env env) {
+        try (var lobby = BulkTransfer.builder("state", "lobby").build();
+             var game = BulkTransfer.builder("state", "game").maxTransferSize(1024).receiver((_, _) -> {
+             }).build()) {
+            var instance = env.createFlatInstance();
+            var lobbyConnection = env.createConnection();
+            var gameConnection = env.createConnection();
+            var lobbyPlayer = lobbyConnection.connect(instance, new Pos(0, 64, 0));
+            var gamePlayer = gameConnection.connect(instance, new Pos(0, 64, 0));
+            var toGame = lobbyConnection.trackIncoming(PluginMessagePacket.class);
+            var future = lobby.send(lobbyPlayer, "game", new byte[4096]);
+            var toLobby = gameConnection.trackIncoming(PluginMessagePacket.class);
+            deliver(game, gamePlayer, toGame.collect());
+            deliver(lobby, lobbyPlayer, toLobby.collect());
+            var exception = assertThrows(CompletionException.class, future::join);
+            assertInstanceOf(IllegalStateException.class, exception.getCause());
+        }
+    }
+
+    @Test
+    void testCraftedFragment(Env env) {
+        try (var game = BulkTransfer.builder("state", "game").receiver((_, _) -> {
+        }).build()) {
+            var connection = env.createConnection();
+            var player = connection.connect(env.createFlatInstance(), new Pos(0, 64, 0));
+            var replies = connection.trackIncoming(PluginMessagePacket.class);
+            // A single fragment of 16 bytes claiming to be one of Integer.MAX_VALUE
+            var frame = NetworkBuffer.resizableBuffer();
+            frame.write(NetworkBuffer.BYTE, (byte) 0);
+            frame.write(NetworkBuffer.LONG, 1L);
+            frame.write(NetworkBuffer.STRING_IO_UTF8, "lobby");
+            frame.write(NetworkBuffer.VAR_INT, Integer.MAX_VALUE);
+            frame.write(NetworkBuffer.VAR_INT, 16);
+            frame.write(NetworkBuffer.VAR_INT, 0);
+            frame.write(NetworkBuffer.VAR_INT, 0);
+            frame.write(NetworkBuffer.RAW_BYTES, new byte[16]);
+            var response = new BungeeResponse.Forward("state", frame.read(NetworkBuffer.RAW_BYTES));
+            game.eventNode().call(new PlayerPluginMessageEvent(player, "BungeeCord", BungeeMessage.writeResponse(response)));
+
+            var reply = assertInstanceOf(BungeeRequest.Forward.class, BungeeMessage.readRequest(replies.collect().getFirst().data()));
+            assertEquals("lobby", reply.serverName());
+            assertEquals(2, reply.data()[0], "The transfer should be aborted before reserving anything");
+        }
+    }
+
+    @Test
+    void testSingleTarget(Env env) {
+        try (var lobby = BulkTransfer.builder("state", "lobby").build()) {
+            var player = env.createPlayer(env.createFlatInstance(), new Pos(0, 64, 0));
+            assertThrows(IllegalArgumentException.class, () -> lobby.send(player, BungeeMessage.ALL, new byte[1]));
+        }
+    }
+
+    // Plays the proxy, turning the forwards sent through a connection into forwards received by the target
+    private static void deliver(BulkTransfer transfer, Player player, Collection<PluginMessagePacket> packets) {
+        for (PluginMessagePacket packet : packets) {
+            var forward = assertInstanceOf(BungeeRequest.Forward.class, BungeeMessage.readRequest(packet.data()));
+            var response = new BungeeResponse.Forward(forward.channel(), forward.data());
+            transfer.eventNode().call(new PlayerPluginMessageEvent(player, packet.channel(), BungeeMessage.writeResponse(response)));
+        }
+    }
+}
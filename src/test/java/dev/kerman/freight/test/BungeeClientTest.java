@@ -0,0 +1,287 @@
+package dev.kerman.freight.test;
+
+import dev.kerman.freight.BungeeClient;
+import dev.kerman.freight.BungeeMessage;
+import dev.kerman.freight.BungeeRequest;
+import dev.kerman.freight.BungeeResponse;
+import dev.kerman.freight.Freight;
+import dev.kerman.freight.RateLimiter;
+import net.minestom.server.coordinate.Pos;
+import net.minestom.server.event.player.PlayerDisconnectEvent;
+import net.minestom.server.network.packet.client.common.ClientPluginMessagePacket;
+import net.minestom.server.network.packet.server.common.PluginMessagePacket;
+import net.minestom.testing.Env;
+import net.minestom.testing.EnvTest;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@EnvTest
+public final class BungeeClientTest {
+
+    @Test
+    void testCorrelation(Env env) {
+        try (var client = BungeeClient.create()) {
+            env.process().eventHandler().addChild(client.eventNode());
+            var instance = env.createFlatInstance();
+            var player = env.createPlayer(instance, new Pos(0, 64, 0));
+            var lobby = client.request(player, new BungeeRequest.PlayerCount("lobby"));
+            var uuid = client.request(player, new BungeeRequest.UUIDOther("bob"));
+            var survival = client.request(player, new BungeeRequest.PlayerCount("survival"));
+            assertFalse(lobby.isDone(), "Query should not be answered before the response arrives");
+            assertEquals(3, client.pending());
+
+            var bob = new BungeeResponse.UUIDOther("Bob", UUID.randomUUID());
+            player.addPacketToQueue(new BungeeResponse.PlayerCount("survival", 10).toClientPacket());
+            player.addPacketToQueue(bob.toClientPacket());
+            player.addPacketToQueue(new BungeeResponse.PlayerCount("lobby", 5).toClientPacket());
+            player.tick(0);
+
+            assertEquals(new BungeeResponse.PlayerCount("lobby", 5), lobby.join());
+            assertEquals(new BungeeResponse.PlayerCount("survival", 10), survival.join());
+            assertEquals(bob, uuid.join(), "Player names are matched case insensitively");
+            assertEquals(0, client.pending());
+        }
+    }
+
+    @Test
+    void testFifo(Env env) {
+        try (var client = BungeeClient.create()) {
+            env.process().eventHandler().addChild(client.eventNode());
+            var instance = env.createFlatInstance();
+            var player = env.createPlayer(instance, new Pos(0, 64, 0));
+            var first = client.request(player, new BungeeRequest.IP());
+            var second = client.request(player, new BungeeRequest.IP());
+            player.addPacketToQueue(new BungeeResponse.IP("127.0.0.1", 25565).toClientPacket());
+            player.tick(0);
+            assertEquals(new BungeeResponse.IP("127.0.0.1", 25565), first.join());
+            assertFalse(second.isDone(), "Second query should still be waiting");
+        }
+    }
+
+    @Test
+    void testCoalescing(Env env) {
+        try (var client = BungeeClient.create()) {
+            env.process().eventHandler().addChild(client.eventNode());
+            var instance = env.createFlatInstance();
+            var connection1 = env.createConnection();
+            var connection2 = env.createConnection();
+            var player1 = connection1.connect(instance, new Pos(0, 64, 0));
+            var player2 = connection2.connect(instance, new Pos(0, 64, 0));
+            var tracker1 = connection1.trackIncoming(PluginMessagePacket.class);
+            var tracker2 = connection2.trackIncoming(PluginMessagePacket.class);
+            var first = client.request(player1, new BungeeRequest.GetServers());
+            var second = client.request(player2, new BungeeRequest.GetServers());
+            assertEquals(1, tracker1.collect().size() + tracker2.collect().size(), "Equal queries in flight should be sent once");
+
+            second.cancel(false);
+            player1.addPacketToQueue(new BungeeResponse.GetServers(List.of("lobby")).toClientPacket());
+            player1.tick(0);
+            assertEquals(new BungeeResponse.GetServers(List.of("lobby")), first.join(), "Cancelling an attached caller should not affect the others");
+            assertEquals(0, client.pending());
+
+            var tracker = connection2.trackIncoming(PluginMessagePacket.class);
+            client.request(player2, new BungeeRequest.GetServers());
+            assertEquals(1, tracker.collect().size(), "Queries should be sent again once answered");
+        }
+    }
+
+    @Test
+    void testCache(Env env) {
+        try (var client = BungeeClient.builder().cache(BungeeRequest.PlayerCount.class, Duration.ofMinutes(1)).build()) {
+            env.process().eventHandler().addChild(client.eventNode());
+            var instance = env.createFlatInstance();
+            var connection = env.createConnection();
+            var player = connection.connect(instance, new Pos(0, 64, 0));
+            var response = new BungeeResponse.PlayerCount("lobby", 5);
+            var first = client.request(player, new BungeeRequest.PlayerCount("lobby"));
+            player.addPacketToQueue(response.toClientPacket());
+            player.tick(0);
+            assertEquals(response, first.join());
+
+            var tracker = connection.trackIncoming(PluginMessagePacket.class);
+            var second = client.request(player, new BungeeRequest.PlayerCount("lobby"));
+            assertTrue(second.isDone(), "Cached responses should be answered immediately");
+            assertEquals(response, second.join());
+            assertEquals(0, tracker.collect().size(), "Cached responses should not be requested again");
+        }
+    }
+
+    @Test
+    void testDirectory(Env env) {
+        try (var client = BungeeClient.builder().directory(16, Duration.ofMinutes(1)).build()) {
+            env.process().eventHandler().addChild(client.eventNode());
+            var instance = env.createFlatInstance();
+            var connection = env.createConnection();
+            var player = connection.connect(instance, new Pos(0, 64, 0));
+            var bob = new BungeeResponse.UUIDOther("Bob", UUID.randomUUID());
+            // Responses are recorded even when nobody is waiting for them
+            player.addPacketToQueue(bob.toClientPacket());
+            player.addPacketToQueue(new BungeeResponse.IPOther("Bob", "127.0.0.1", 25565).toClientPacket());
+            player.tick(0);
+
+            var tracker = connection.trackIncoming(PluginMessagePacket.class);
+            var uuid = client.request(player, new BungeeRequest.UUIDOther("bob"));
+            var ip = client.request(player, new BungeeRequest.IPOther("BOB"));
+            assertEquals(bob, uuid.join());
+            assertEquals(new BungeeResponse.IPOther("Bob", "127.0.0.1", 25565), ip.join());
+            assertEquals(0, tracker.collect().size(), "Directory lookups should not reach the proxy");
+        }
+    }
+
+    @Test
+    void testSkipsUnawaitedTypes(Env env) {
+        try (var client = BungeeClient.create()) {
+            env.process().eventHandler().addChild(client.eventNode());
+            var instance = env.createFlatInstance();
+            var player = env.createPlayer(instance, new Pos(0, 64, 0));
+            var ip = client.request(player, new BungeeRequest.IP());
+            // A UUID response whose last hex digit is invalid, failing as soon as its body is decoded
+            var malformed = BungeeMessage.writeResponse(new BungeeResponse.UUID(UUID.randomUUID()));
+            malformed[malformed.length - 1] = 'z';
+            var failures = Freight.metrics().snapshot().decodeFailures();
+            assertThrows(IllegalStateException.class, () -> BungeeMessage.readResponse(malformed));
+            assertEquals(failures + 1, Freight.metrics().snapshot().decodeFailures(), "Decoding the body should fail");
+
+            // Only the tag of a type nobody waits for is read, the body is never decoded
+            player.addPacketToQueue(new ClientPluginMessagePacket("BungeeCord", malformed));
+            player.addPacketToQueue(new BungeeResponse.IP("127.0.0.1", 25565).toClientPacket());
+            player.tick(0);
+            assertEquals(failures + 1, Freight.metrics().snapshot().decodeFailures());
+            assertEquals(new BungeeResponse.IP("127.0.0.1", 25565), ip.join());
+        }
+    }
+
+    @Test
+    void testUncacheable() {
+        var builder = BungeeClient.builder();
+        assertThrows(IllegalArgumentException.class, () -> builder.cache(BungeeRequest.UUIDOther.class, Duration.ofMinutes(1)));
+    }
+
+    @Test
+    void testTimeout(Env env) {
+        try (var client = BungeeClient.builder().timeout(Duration.ofMillis(50)).build()) {
+            env.process().eventHandler().addChild(client.eventNode());
+            var instance = env.createFlatInstance();
+            var player = env.createPlayer(instance, new Pos(0, 64, 0));
+            var future = client.request(player, new BungeeRequest.GetServer());
+            var exception = assertThrows(CompletionException.class, future::join);
+            assertInstanceOf(TimeoutException.class, exception.getCause());
+            assertEquals(0, client.pending());
+        }
+    }
+
+    @Test
+    void testFailover(Env env) {
+        try (var client = BungeeClient.create()) {
+            env.process().eventHandler().addChild(client.eventNode());
+            var instance = env.createFlatInstance();
+            var leaving = env.createPlayer(instance, new Pos(0, 64, 0));
+            var connection = env.createConnection();
+            var staying = connection.connect(instance, new Pos(0, 64, 0));
+            var tracker = connection.trackIncoming(PluginMessagePacket.class);
+            var count = client.request(leaving, new BungeeRequest.PlayerCount("lobby"));
+            var ip = client.request(leaving, new BungeeRequest.IP());
+            env.process().eventHandler().call(new PlayerDisconnectEvent(leaving));
+
+            var exception = assertThrows(CompletionException.class, ip::join);
+            assertInstanceOf(IllegalStateException.class, exception.getCause(), "Queries about the carrier can't fail over");
+            assertFalse(count.isDone());
+            assertEquals(1, tracker.collect().size(), "Shared queries should be sent again through another carrier");
+            assertEquals(1, client.pending());
+
+            staying.addPacketToQueue(new BungeeResponse.PlayerCount("lobby", 5).toClientPacket());
+            staying.tick(0);
+            assertEquals(new BungeeResponse.PlayerCount("lobby", 5), count.join());
+            assertEquals(0, client.pending());
+        }
+    }
+
+    @Test
+    void testBlockingQuery(Env env) throws Exception {
+        try (var client = BungeeClient.create()) {
+            env.process().eventHandler().addChild(client.eventNode());
+            var instance = env.createFlatInstance();
+            var player = env.createPlayer(instance, new Pos(0, 64, 0));
+            var response = new CompletableFuture<BungeeResponse.PlayerCount>();
+            var thread = Thread.ofVirtual().start(() -> {
+                try {
+                    response.complete(client.query(player, new BungeeRequest.PlayerCount("lobby"), Duration.ofSeconds(5)));
+                } catch (Throwable throwable) {
+                    response.completeExceptionally(throwable);
+                }
+            });
+            while (client.pending() == 0 && thread.isAlive()) Thread.onSpinWait();
+            player.addPacketToQueue(new BungeeResponse.PlayerCount("lobby", 5).toClientPacket());
+            player.tick(0);
+            thread.join();
+            assertEquals(new BungeeResponse.PlayerCount("lobby", 5), response.join());
+
+            assertThrows(TimeoutException.class, () -> client.query(player, new BungeeRequest.GetServer(), Duration.ofMillis(20)));
+        }
+    }
+
+    @Test
+    void testAbandonedQuery(Env env) {
+        try (var client = BungeeClient.create()) {
+            env.process().eventHandler().addChild(client.eventNode());
+            var instance = env.createFlatInstance();
+            var player = env.createPlayer(instance, new Pos(0, 64, 0));
+            assertThrows(TimeoutException.class, () -> client.query(player, new BungeeRequest.IP(), Duration.ofMillis(20)));
+            assertEquals(0, client.pending(), "Queries given up on should leave the queue of their carrier");
+
+            var ip = client.request(player, new BungeeRequest.IP());
+            player.addPacketToQueue(new BungeeResponse.IP("127.0.0.1", 25565).toClientPacket());
+            player.tick(0);
+            assertEquals(new BungeeResponse.IP("127.0.0.1", 25565), ip.join(), "A late response should answer the newer query");
+            assertEquals(0, client.pending());
+        }
+    }
+
+    @Test
+    void testRejectedQuery(Env env) {
+        Freight.rateLimiter(RateLimiter.builder().rate(0.001).burst(1).queueSize(1).overflow(RateLimiter.Overflow.REJECT).build());
+        try (var client = BungeeClient.create()) {
+            env.process().eventHandler().addChild(client.eventNode());
+            var instance = env.createFlatInstance();
+            var player = env.createPlayer(instance, new Pos(0, 64, 0));
+            client.request(player, new BungeeRequest.UUID());
+            client.request(player, new BungeeRequest.GetServer());
+            var rejected = client.request(player, new BungeeRequest.IP());
+            var exception = assertThrows(CompletionException.class, rejected::join);
+            assertInstanceOf(IllegalStateException.class, exception.getCause());
+            assertEquals(2, client.pending(), "Rejected queries should leave the queue of their carrier");
+
+            Freight.rateLimiter(null);
+            var ip = client.request(player, new BungeeRequest.IP());
+            player.addPacketToQueue(new BungeeResponse.IP("127.0.0.1", 25565).toClientPacket());
+            player.tick(0);
+            assertEquals(new BungeeResponse.IP("127.0.0.1", 25565), ip.join(), "The response should answer the query actually sent");
+        } finally {
+            Freight.rateLimiter(null);
+        }
+    }
+
+    @Test
+    void testClose(Env env) {
+        var client = BungeeClient.create();
+        var instance = env.createFlatInstance();
+        var player = env.createPlayer(instance, new Pos(0, 64, 0));
+        var future = client.request(player, new BungeeRequest.IP());
+        client.close();
+        var exception = assertThrows(CompletionException.class, future::join);
+        assertInstanceOf(IllegalStateException.class, exception.getCause());
+        assertThrows(IllegalStateException.class, () -> client.request(player, new BungeeRequest.IP()));
+    }
+}
@@ -55,6 +55,46 @@ public class BungeeMessageTest {
         Assertions.assertEquals(3, packets1.size() + packets2.size() + packets3.size(), "One packet should of been sent across all players");
     }
 
+    @Test
+    void testBroadcast(Env env) {
+        var instance = env.createFlatInstance();
+        var message = new BungeeRequest.Connect("lobby");
+        var expected = BungeeMessage.write(message);
+        var connection1 = env.createConnection();
+        var connection2 = env.createConnection();
+        var connection3 = env.createConnection();
+        var player1 = connection1.connect(instance, new Pos(0, 0, 0));
+        var player2 = connection2.connect(instance, new Pos(0, 0, 0));
+        var player3 = connection3.connect(instance, new Pos(0, 0, 0));
+        var tracker1 = connection1.trackIncoming(PluginMessagePacket.class);
+        var tracker2 = connection2.trackIncoming(PluginMessagePacket.class);
+        var tracker3 = connection3.trackIncoming(PluginMessagePacket.class);
+        BungeeMessage.broadcast(List.of(player1.getPlayerConnection(), player2.getPlayerConnection(), player3.getPlayerConnection()), message);
+        for (var tracker : List.of(tracker1, tracker2, tracker3)) {
+            tracker.assertSingle(packet -> {
+                Assertions.assertEquals(message.toPacket().channel(), packet.channel());
+                Assertions.assertArrayEquals(expected, packet.data(), "Every connection should receive the same bytes");
+            });
+        }
+    }
+
+    @Test
+    void testEncoded(Env env) {
+        var instance = env.createFlatInstance();
+        var message = new BungeeRequest.Connect("lobby");
+        var encoded = message.encoded();
+        Assertions.assertSame(message, encoded.message());
+        Assertions.assertSame(encoded.toPacket(), encoded.toPacket(), "Encoded packets should be shared");
+        Assertions.assertArrayEquals(BungeeMessage.write(message), encoded.toPacket().data());
+        Assertions.assertArrayEquals(BungeeMessage.write(message), encoded.toClientPacket().data());
+
+        var connection = env.createConnection();
+        var player = connection.connect(instance, new Pos(0, 0, 0));
+        var tracker = connection.trackIncoming(PluginMessagePacket.class);
+        encoded.send(player);
+        tracker.assertSingle(packet -> Assertions.assertEquals(message, BungeeMessage.readRequest(packet.data())));
+    }
+
     @Test
     void determineType() {
         final byte[] message = new byte[]{0, 15, 71, 101, 116, 80, 108, 97, 121, 101, 114, 83, 101, 114, 118, 101, 114, 0, 10, 84, 104, 101, 77, 111, 100, 101, 57, 49, 49}; // Request.GetPlayerServer
@@ -34,9 +34,13 @@ import static dev.kerman.freight.BungeeRequest.PlayerList;
 import static dev.kerman.freight.BungeeRequest.ServerIP;
 import static dev.kerman.freight.BungeeRequest.UUID;
 import static dev.kerman.freight.BungeeRequest.UUIDOther;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @EnvTest
 public final class BungeeRequestTest { //TODO bin tests
@@ -91,6 +95,51 @@ public final class BungeeRequestTest { //TODO bin tests
         });
     }
 
+    @Test
+    void testUnknownType() {
+        final byte[] unknown = new byte[]{0, 7, 85, 110, 107, 110, 111, 119, 110}; // "Unknown"
+        assertThrows(IllegalStateException.class, () -> BungeeMessage.readRequest(unknown));
+        final byte[] truncated = new byte[]{0, 15, 71, 101, 116}; // "Get", claiming 15 bytes
+        assertThrows(IllegalStateException.class, () -> BungeeMessage.readRequest(truncated));
+    }
+
+    @Test
+    void testForwardOwnership() {
+        final byte[] data = "Forwarded message".getBytes();
+        assertNotSame(data, new Forward("testServer", "test", data).data(), "Constructor should copy the data");
+        assertSame(data, Forward.wrap("testServer", "test", data).data(), "Wrapping should take ownership of the data");
+        assertSame(data, ForwardToPlayer.wrap("playerName", "test", data).data(), "Wrapping should take ownership of the data");
+        assertNotSame(data, new Forward("testServer", "test", data).data(), "Ownership should only be handed to the wrapped request");
+        assertThrows(IllegalArgumentException.class, () -> Forward.wrap("testServer", "test", new byte[65535 + 1]));
+
+        final var payload = Forward.wrap("testServer", "test", data).payload();
+        assertTrue(payload.isReadOnly(), "Payload should be a read-only view");
+        assertEquals(data.length, payload.remaining());
+    }
+
+    static List<BungeeRequest> constants() {
+        return List.of(IP.INSTANCE, GetServers.INSTANCE, GetServer.INSTANCE, UUID.INSTANCE, PlayerCount.all(), PlayerList.all());
+    }
+
+    @ParameterizedTest
+    @MethodSource("constants")
+    void testPreEncodedConstants(BungeeRequest request) {
+        final PluginMessagePacket packet = request.toPacket();
+        assertSame(packet, request.toPacket(), "Packet should be encoded once");
+        assertArrayEquals(BungeeMessage.writeRequest(request), packet.data());
+        assertEquals(request, BungeeMessage.readRequest(packet.data()));
+    }
+
+    @Test
+    void testConstantEquality() {
+        assertEquals(IP.INSTANCE, new IP());
+        assertSame(IP.INSTANCE.toPacket(), new IP().toPacket());
+        assertSame(IP.INSTANCE, BungeeMessage.readRequest(IP.INSTANCE.toPacket().data()), "Decoding should return the constant");
+        assertSame(PlayerCount.all(), PlayerCount.all());
+        assertSame(PlayerCount.all().toPacket(), new PlayerCount(BungeeMessage.ALL).toPacket());
+        assertNotSame(new PlayerCount("testServer").toPacket(), new PlayerCount("testServer").toPacket());
+    }
+
     @Test
     void testLargeForwards() {
         assertDoesNotThrow(() -> {
@@ -27,8 +27,11 @@ import static dev.kerman.freight.BungeeResponse.ServerIP;
 import static dev.kerman.freight.BungeeResponse.UUIDOther;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @EnvTest
 public final class BungeeResponseTest { //TODO bin tests
@@ -90,6 +93,16 @@ public final class BungeeResponseTest { //TODO bin tests
         assertEquals(response, readResponse, "Forward response should be equal after reading from buffer");
     }
 
+    @Test
+    void testForwardNamedAfterType() {
+        // Only prefixed response types are recognized, anything else has to be an unprefixed Forward.
+        for (String channel : List.of("Connect", "Forward", "ForwardToPlayer", "KickPlayer", "G", "")) {
+            var response = new Forward(channel, "Forwarded message".getBytes());
+            var readResponse = BungeeMessage.readResponse(BungeeMessage.writeResponse(response));
+            assertEquals(response, readResponse, "Forward on channel '%s' should be read as a Forward".formatted(channel));
+        }
+    }
+
     @Test
     void testType() {
         var response = new IPOther("bob", "127.0.0.1", 65212);
@@ -102,6 +115,48 @@ public final class BungeeResponseTest { //TODO bin tests
         assertEquals(response, readResponse, "IPOther response should be equal after reading from buffer");
     }
 
+    @Test
+    void testUUIDWireFormat() {
+        var uuid = UUID.fromString("0f1e2d3c-4b5a-6978-8796-a5b4c3d2e1f0");
+        var data = BungeeMessage.writeResponse(new UUIDOther("bob", uuid));
+        NetworkBuffer buffer = NetworkBuffer.resizableBuffer();
+        buffer.write(NetworkBuffer.RAW_BYTES, data);
+        assertEquals("UUIDOther", buffer.read(NetworkBuffer.STRING_IO_UTF8));
+        assertEquals("bob", buffer.read(NetworkBuffer.STRING_IO_UTF8));
+        assertEquals("0f1e2d3c4b5a69788796a5b4c3d2e1f0", buffer.read(NetworkBuffer.STRING_IO_UTF8), "UUID should be written as lowercase hex without dashes");
+
+        var upperCase = NetworkBuffer.makeArray(writer -> {
+            writer.write(NetworkBuffer.STRING_IO_UTF8, "UUID");
+            writer.write(NetworkBuffer.STRING_IO_UTF8, "0F1E2D3C4B5A69788796A5B4C3D2E1F0");
+        });
+        assertEquals(new BungeeResponse.UUID(uuid), BungeeMessage.readResponse(upperCase), "Upper case hex should be accepted");
+        var invalid = NetworkBuffer.makeArray(writer -> {
+            writer.write(NetworkBuffer.STRING_IO_UTF8, "UUID");
+            writer.write(NetworkBuffer.STRING_IO_UTF8, "0f1e2d3c-4b5a-6978-8796-a5b4c3d2e1f0");
+        });
+        assertThrows(IllegalStateException.class, () -> BungeeMessage.readResponse(invalid), "Dashed UUIDs are not part of the protocol");
+    }
+
+    @Test
+    void testCsvLists() {
+        // BungeeCord separates the names with a comma and a space
+        var data = NetworkBuffer.makeArray(writer -> {
+            writer.write(NetworkBuffer.STRING_IO_UTF8, "PlayerList");
+            writer.write(NetworkBuffer.STRING_IO_UTF8, "lobby");
+            writer.write(NetworkBuffer.STRING_IO_UTF8, "alice, bob,carol");
+        });
+        var response = assertInstanceOf(PlayerList.class, BungeeMessage.readResponse(data));
+        assertEquals(List.of("alice", "bob", "carol"), response.playerNameList());
+        assertTrue(response.playerNameList().contains("bob"));
+        assertFalse(response.playerNameList().contains("dave"));
+        assertEquals(2, response.playerNameList().indexOf("carol"));
+        assertThrows(UnsupportedOperationException.class, () -> response.playerNameList().add("dave"));
+        assertEquals(response, BungeeMessage.readResponse(BungeeMessage.writeResponse(response)));
+
+        var empty = new GetServers(List.of());
+        assertEquals(empty, BungeeMessage.readResponse(BungeeMessage.writeResponse(empty)), "An empty string should be an empty list");
+    }
+
     @Test
     void testLargeForwards() {
         assertDoesNotThrow(() -> {
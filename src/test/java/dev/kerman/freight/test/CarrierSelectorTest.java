@@ -0,0 +1,117 @@
+package dev.kerman.freight.test;
+
+import com.sun.management.ThreadMXBean;
+import dev.kerman.freight.CarrierSelector;
+import net.kyori.adventure.audience.Audience;
+import net.minestom.server.coordinate.Pos;
+import net.minestom.testing.Env;
+import net.minestom.testing.EnvTest;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+@EnvTest
+public final class CarrierSelectorTest {
+
+    private static List<Audience> players(Env env, int count) {
+        var instance = env.createFlatInstance();
+        Audience[] players = new Audience[count];
+        for (int i = 0; i < count; i++) players[i] = env.createPlayer(instance, new Pos(0, 64, 0));
+        return List.of(players);
+    }
+
+    @Test
+    void testRoundRobin(Env env) {
+        var players = players(env, 3);
+        var selector = CarrierSelector.roundRobin();
+        for (int i = 0; i < 6; i++) assertSame(players.get(i % 3), selector.select(players));
+        // Collections without random access are walked up to the index
+        var set = new LinkedHashSet<>(players);
+        var walking = CarrierSelector.roundRobin();
+        for (int i = 0; i < 6; i++) assertSame(players.get(i % 3), walking.select(set));
+    }
+
+    @Test
+    void testRandom(Env env) {
+        var players = players(env, 3);
+        var selector = CarrierSelector.random();
+        Set<Audience> selected = new HashSet<>();
+        for (int i = 0; i < 200; i++) selected.add(selector.select(players));
+        assertTrue(players.containsAll(selected));
+        assertEquals(3, selected.size(), "Every player should eventually be picked");
+    }
+
+    @Test
+    void testSticky(Env env) {
+        var players = players(env, 3);
+        var selector = CarrierSelector.sticky();
+        var first = selector.select(players);
+        for (int i = 0; i < 10; i++) assertSame(first, selector.select(players));
+        var others = players.stream().filter(player -> player != first).toList();
+        var second = selector.select(others);
+        assertTrue(others.contains(second), "A carrier missing from the collection should be replaced");
+        assertSame(second, selector.select(players));
+    }
+
+    @Test
+    void testShrinkingCollection(Env env) {
+        var players = players(env, 3);
+        // Reports the size it had before two players left
+        Collection<Audience> shrinking = new AbstractCollection<>() {
+            @Override
+            public Iterator<Audience> iterator() {
+                return players.subList(0, 1).iterator();
+            }
+
+            @Override
+            public int size() {
+                return players.size();
+            }
+        };
+        for (var selector : List.of(CarrierSelector.random(), CarrierSelector.roundRobin(), CarrierSelector.sticky())) {
+            for (int i = 0; i < 10; i++) assertSame(players.getFirst(), selector.select(shrinking));
+        }
+        assertThrows(IllegalArgumentException.class, () -> CarrierSelector.random().select(Set.of()));
+    }
+
+    @Test
+    void testAllocationFree(Env env) {
+        var threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported(), "Thread allocation counters are not supported");
+        threads.setThreadAllocatedMemoryEnabled(true);
+        var players = players(env, 3);
+        for (var selector : List.of(CarrierSelector.random(), CarrierSelector.roundRobin(), CarrierSelector.sticky())) {
+            for (int i = 0; i < 10_000; i++) selector.select(players);
+            final long before = threads.getCurrentThreadAllocatedBytes();
+            for (int i = 0; i < 10_000; i++) selector.select(players);
+            // Per selection, leaving room for the counter itself
+            assertEquals(0, (threads.getCurrentThreadAllocatedBytes() - before) / 10_000, "Selecting from a list should not allocate");
+        }
+    }
+
+    @Test
+    void testLeastRecentlyUsed(Env env) {
+        var players = players(env, 3);
+        var selector = CarrierSelector.leastRecentlyUsed();
+        Set<Audience> selected = new HashSet<>();
+        for (int i = 0; i < 3; i++) selected.add(selector.select(players));
+        assertEquals(3, selected.size(), "Every player should be picked once before any is picked again");
+        var first = selector.select(players);
+        assertSame(first, selector.select(List.of(first)));
+        var next = selector.select(players);
+        assertTrue(next != first, "The player just used should be picked last");
+    }
+}
@@ -0,0 +1,74 @@
+package dev.kerman.freight.test;
+
+import dev.kerman.freight.BungeeClient;
+import dev.kerman.freight.BungeeMessage;
+import dev.kerman.freight.BungeeRequest;
+import dev.kerman.freight.BungeeResponse;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import net.minestom.server.coordinate.Pos;
+import net.minestom.testing.Env;
+import net.minestom.testing.EnvTest;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@EnvTest
+public final class FlightRecorderTest {
+
+    private static List<RecordedEvent> events(List<RecordedEvent> events, String name) {
+        return events.stream().filter(event -> event.getEventType().getName().equals("dev.kerman.freight." + name)).toList();
+    }
+
+    @Test
+    void testEvents(Env env) throws Exception {
+        var file = Files.createTempFile("freight", ".jfr");
+        try (var client = BungeeClient.create(); var recording = new Recording()) {
+            env.process().eventHandler().addChild(client.eventNode());
+            var player = env.createPlayer(env.createFlatInstance(), new Pos(0, 64, 0));
+            for (String name : List.of("Encode", "Decode", "Send", "RoundTrip"))
+                recording.enable("dev.kerman.freight." + name);
+            recording.start();
+            var future = client.request(player, new BungeeRequest.PlayerCount("lobby"));
+            player.addPacketToQueue(new BungeeResponse.PlayerCount("lobby", 5).toClientPacket());
+            player.tick(0);
+            future.join();
+            recording.stop();
+            recording.dump(file);
+
+            var events = RecordingFile.readAllEvents(file);
+            var send = events(events, "Send");
+            assertEquals(1, send.size());
+            assertEquals("PlayerCount", send.getFirst().getString("type"));
+            assertEquals(player.getUsername(), send.getFirst().getString("carrier"));
+            assertEquals(BungeeMessage.writeRequest(new BungeeRequest.PlayerCount("lobby")).length, send.getFirst().getInt("size"));
+            assertTrue(events(events, "Encode").size() >= 2, "The request and the response should be encoded");
+            assertEquals(1, events(events, "Decode").size());
+            var roundTrip = events(events, "RoundTrip");
+            assertEquals(1, roundTrip.size());
+            assertEquals(new BungeeResponse.PlayerCount("lobby", 5).toString(), roundTrip.getFirst().getString("response"));
+            assertTrue(roundTrip.getFirst().getDuration().isPositive(), "The event should last from the query to its response");
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void testDisabledByDefault() throws Exception {
+        var file = Files.createTempFile("freight", ".jfr");
+        try (var recording = new Recording()) {
+            recording.start();
+            BungeeMessage.writeRequest(new BungeeRequest.GetServers());
+            recording.stop();
+            recording.dump(file);
+            assertTrue(events(RecordingFile.readAllEvents(file), "Encode").isEmpty());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package dev.kerman.freight.test;
+
+import dev.kerman.freight.BungeeMessage;
+import dev.kerman.freight.BungeeRequest;
+import dev.kerman.freight.BungeeResponse;
+import dev.kerman.freight.ForwardBatcher;
+import dev.kerman.freight.ForwardRouter;
+import net.minestom.server.coordinate.Pos;
+import net.minestom.server.network.packet.server.common.PluginMessagePacket;
+import net.minestom.testing.Env;
+import net.minestom.testing.EnvTest;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@EnvTest
+public final class ForwardBatcherTest {
+
+    @Test
+    void testEnvelope(Env env) {
+        var batcher = ForwardBatcher.create(env.process().scheduler());
+        var connection = env.createConnection();
+        var player = connection.connect(env.createFlatInstance(), new Pos(0, 64, 0));
+        var tracker = connection.trackIncoming(PluginMessagePacket.class);
+        batcher.forward(player.getPlayerConnection(), new BungeeRequest.Forward("game", "score", new byte[]{1}));
+        batcher.forward(player.getPlayerConnection(), new BungeeRequest.Forward("game", "kill", new byte[]{2}));
+        batcher.forward(player.getPlayerConnection(), new BungeeRequest.Forward("game", "score", new byte[]{3}));
+        var single = new BungeeRequest.Forward("lobby", "score", new byte[]{4});
+        batcher.forward(player.getPlayerConnection(), single);
+        assertEquals(4, batcher.queued());
+        batcher.flush();
+        assertEquals(0, batcher.queued());
+
+        var packets = tracker.collect();
+        assertEquals(2, packets.size(), "Forwards to the same destination should be packed together");
+        var received = new ArrayList<String>();
+        var router = ForwardRouter.builder()
+                .route("score", (_, data) -> received.add("score" + data.get(0)))
+                .route("kill", (_, data) -> received.add("kill" + data.get(0)))
+                .build();
+        for (PluginMessagePacket packet : packets) {
+            var forward = assertInstanceOf(BungeeRequest.Forward.class, BungeeMessage.readRequest(packet.data()));
+            if (forward.serverName().equals("lobby")) {
+                assertEquals(single, forward, "A single forward should be sent as is");
+                continue;
+            }
+            assertEquals(ForwardBatcher.ENVELOPE_CHANNEL, forward.channel());
+            var response = new BungeeResponse.Forward(forward.channel(), forward.data());
+            assertTrue(router.route(player, BungeeMessage.writeResponse(response)));
+        }
+        assertEquals(List.of("score1", "kill2", "score3"), received, "Envelopes should be unpacked in order");
+    }
+
+    @Test
+    void testFull(Env env) {
+        var batcher = ForwardBatcher.create(env.process().scheduler());
+        var connection = env.createConnection();
+        var player = connection.connect(env.createFlatInstance(), new Pos(0, 64, 0));
+        var tracker = connection.trackIncoming(PluginMessagePacket.class);
+        for (int i = 0; i < 3; i++)
+            batcher.forward(player.getPlayerConnection(), new BungeeRequest.Forward("game", "state", new byte[30_000]));
+        assertEquals(1, tracker.collect().size(), "A full envelope should be sent right away");
+        assertEquals(1, batcher.queued());
+    }
+
+    @Test
+    void testEndOfTick(Env env) {
+        var batcher = ForwardBatcher.create(env.process().scheduler());
+        var connection = env.createConnection();
+        var player = connection.connect(env.createFlatInstance(), new Pos(0, 64, 0));
+        var tracker = connection.trackIncoming(PluginMessagePacket.class);
+        batcher.forward(player.getPlayerConnection(), new BungeeRequest.Forward("game", "score", new byte[]{1}));
+        env.tick();
+        assertEquals(0, batcher.queued());
+        assertEquals(1, tracker.collect().size());
+    }
+}
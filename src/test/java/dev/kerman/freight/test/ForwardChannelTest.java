@@ -0,0 +1,114 @@
+package dev.kerman.freight.test;
+
+import dev.kerman.freight.BungeeMessage;
+import dev.kerman.freight.BungeeRequest;
+import dev.kerman.freight.BungeeResponse;
+import dev.kerman.freight.ForwardChannel;
+import dev.kerman.freight.ForwardRouter;
+import net.minestom.server.coordinate.Pos;
+import net.minestom.server.network.NetworkBuffer;
+import net.minestom.server.network.NetworkBufferTemplate;
+import net.minestom.testing.Env;
+import net.minestom.testing.EnvTest;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.Deflater;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@EnvTest
+public final class ForwardChannelTest {
+    private static final ForwardChannel<Invite> INVITES = new ForwardChannel<>("party:invite", Invite.SERIALIZER);
+
+    record Invite(String from, UUID to) {
+        static final NetworkBuffer.Type<Invite> SERIALIZER = NetworkBufferTemplate.template(
+                NetworkBuffer.STRING, Invite::from,
+                NetworkBuffer.UUID, Invite::to,
+                Invite::new
+        );
+    }
+
+    @Test
+    void testFraming() {
+        var invite = new Invite("alice", UUID.randomUUID());
+        var data = NetworkBuffer.makeArray(Invite.SERIALIZER, invite);
+        assertEquals(new BungeeRequest.Forward(BungeeMessage.ONLINE, "party:invite", data),
+                BungeeMessage.readRequest(INVITES.forward(BungeeMessage.ONLINE, invite).data()),
+                "Typed forwards should be framed like regular forwards");
+        assertEquals(new BungeeRequest.ForwardToPlayer("bob", "party:invite", data),
+                BungeeMessage.readRequest(INVITES.forwardToPlayer("bob", invite).data()));
+    }
+
+    @Test
+    void testRead() {
+        var invite = new Invite("alice", UUID.randomUUID());
+        var forward = new BungeeResponse.Forward("party:invite", NetworkBuffer.makeArray(Invite.SERIALIZER, invite));
+        assertEquals(invite, INVITES.read(forward));
+        assertThrows(IllegalArgumentException.class, () -> INVITES.read(new BungeeResponse.Forward("chat", forward.data())));
+    }
+
+    @Test
+    void testTooLarge() {
+        var channel = new ForwardChannel<>("blob", NetworkBuffer.RAW_BYTES);
+        assertThrows(IllegalArgumentException.class, () -> channel.forward(BungeeMessage.ALL, new byte[65536]));
+    }
+
+    @Test
+    void testCompressed() {
+        var channel = new ForwardChannel<>("sync", NetworkBuffer.STRING).compressed(256);
+        var large = "{\"player\":\"alice\",\"coins\":100},".repeat(5000);
+        var request = (BungeeRequest.Forward) BungeeMessage.readRequest(channel.forward(BungeeMessage.ALL, large).data());
+        assertTrue(request.data().length < 65535, "Values larger than a forward should fit once deflated");
+        assertEquals(large, channel.read(new BungeeResponse.Forward("sync", request.data())));
+
+        var small = (BungeeRequest.Forward) BungeeMessage.readRequest(channel.forward(BungeeMessage.ALL, "alice").data());
+        assertEquals(0, small.data()[0], "Values under the threshold should not be deflated");
+        assertEquals("alice", channel.read(new BungeeResponse.Forward("sync", small.data())));
+    }
+
+    @Test
+    void testCompressedReuse() {
+        var channel = new ForwardChannel<>("sync", NetworkBuffer.STRING).compressed(256);
+        // The scratch space of the thread is reused, every value must come out whole
+        for (var value : List.of("a".repeat(10_000), "bob", "b".repeat(300), "c".repeat(70_000), "alice")) {
+            var request = (BungeeRequest.Forward) BungeeMessage.readRequest(channel.forward(BungeeMessage.ALL, value).data());
+            assertEquals(value, channel.read(new BungeeResponse.Forward("sync", request.data())));
+        }
+    }
+
+    @Test
+    void testInflatedLengthMismatch() {
+        var channel = new ForwardChannel<>("sync", NetworkBuffer.STRING).compressed(256);
+        var deflater = new Deflater();
+        deflater.setInput(NetworkBuffer.makeArray(NetworkBuffer.STRING, "x".repeat(100)));
+        deflater.finish();
+        var deflated = new byte[256];
+        var length = deflater.deflate(deflated);
+        deflater.end();
+        // Claims to inflate to the maximum, but only inflates to a hundred bytes
+        var data = NetworkBuffer.makeArray(buffer -> {
+            buffer.write(NetworkBuffer.BYTE, (byte) 1);
+            buffer.write(NetworkBuffer.VAR_INT, 1 << 24);
+            buffer.write(NetworkBuffer.RAW_BYTES, Arrays.copyOf(deflated, length));
+        });
+        assertThrows(IllegalStateException.class, () -> channel.read(new BungeeResponse.Forward("sync", data)));
+    }
+
+    @Test
+    void testRouted(Env env) {
+        var received = new ArrayList<Invite>();
+        var router = ForwardRouter.builder().route(INVITES, (_, invite) -> received.add(invite)).build();
+        env.process().eventHandler().addChild(router.eventNode());
+        var player = env.createPlayer(env.createFlatInstance(), new Pos(0, 64, 0));
+        var invite = new Invite("alice", UUID.randomUUID());
+        player.addPacketToQueue(new BungeeResponse.Forward("party:invite", NetworkBuffer.makeArray(Invite.SERIALIZER, invite)).toClientPacket());
+        player.tick(0);
+        assertEquals(List.of(invite), received);
+    }
+}
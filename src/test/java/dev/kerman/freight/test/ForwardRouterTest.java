@@ -0,0 +1,82 @@
+package dev.kerman.freight.test;
+
+import dev.kerman.freight.BungeeMessage;
+import dev.kerman.freight.BungeeResponse;
+import dev.kerman.freight.ForwardRouter;
+import net.minestom.server.coordinate.Pos;
+import net.minestom.testing.Env;
+import net.minestom.testing.EnvTest;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ReadOnlyBufferException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@EnvTest
+public final class ForwardRouterTest {
+
+    @Test
+    void testRouting(Env env) {
+        var party = new ArrayList<byte[]>();
+        var chat = new ArrayList<byte[]>();
+        var router = ForwardRouter.builder()
+                .route("party", (_, data) -> party.add(bytes(data)))
+                .route("chat", (_, data) -> chat.add(bytes(data)))
+                .build();
+        env.process().eventHandler().addChild(router.eventNode());
+        var instance = env.createFlatInstance();
+        var player = env.createPlayer(instance, new Pos(0, 64, 0));
+        player.addPacketToQueue(new BungeeResponse.Forward("party", new byte[]{1, 2, 3}).toClientPacket());
+        player.addPacketToQueue(new BungeeResponse.Forward("chat", new byte[]{4}).toClientPacket());
+        player.addPacketToQueue(new BungeeResponse.Forward("unrouted", new byte[]{5}).toClientPacket());
+        player.tick(0);
+
+        assertEquals(1, party.size());
+        assertArrayEquals(new byte[]{1, 2, 3}, party.getFirst());
+        assertEquals(1, chat.size());
+        assertArrayEquals(new byte[]{4}, chat.getFirst());
+    }
+
+    @Test
+    void testUnrouted(Env env) {
+        var router = ForwardRouter.builder().route("party", (_, _) -> {
+        }).build();
+        var player = env.createPlayer(env.createFlatInstance(), new Pos(0, 64, 0));
+        assertTrue(router.route(player, BungeeMessage.writeResponse(new BungeeResponse.Forward("party", new byte[0]))));
+        assertFalse(router.route(player, BungeeMessage.writeResponse(new BungeeResponse.Forward("chat", new byte[0]))));
+        assertFalse(router.route(player, BungeeMessage.writeResponse(new BungeeResponse.GetServers(List.of("party")))));
+        assertFalse(router.route(player, new byte[0]));
+    }
+
+    @Test
+    void testReadOnly(Env env) {
+        var player = env.createPlayer(env.createFlatInstance(), new Pos(0, 64, 0));
+        var router = ForwardRouter.builder()
+                .route("party", (_, data) -> assertThrows(ReadOnlyBufferException.class, () -> data.put(0, (byte) 0)))
+                .build();
+        assertTrue(router.route(player, BungeeMessage.writeResponse(new BungeeResponse.Forward("party", new byte[1]))));
+    }
+
+    @Test
+    void testInvalidRoutes() {
+        var builder = ForwardRouter.builder().route("party", (_, _) -> {
+        });
+        assertThrows(IllegalArgumentException.class, () -> builder.route("party", (_, _) -> {
+        }), "Channels can only have a single route");
+        assertThrows(IllegalArgumentException.class, () -> builder.route("PlayerCount", (_, _) -> {
+        }), "Forwards named after a response type are read as that response");
+    }
+
+    private static byte[] bytes(ByteBuffer data) {
+        var bytes = new byte[data.remaining()];
+        data.get(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,80 @@
+package dev.kerman.freight.test;
+
+import dev.kerman.freight.BungeeClient;
+import dev.kerman.freight.BungeeMessage;
+import dev.kerman.freight.BungeeRequest;
+import dev.kerman.freight.BungeeResponse;
+import dev.kerman.freight.Freight;
+import dev.kerman.freight.Metrics;
+import net.minestom.server.coordinate.Pos;
+import net.minestom.server.event.player.PlayerPluginMessageEvent;
+import net.minestom.server.network.NetworkBuffer;
+import net.minestom.testing.Env;
+import net.minestom.testing.EnvTest;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@EnvTest
+public final class MetricsTest {
+
+    @Test
+    void testTraffic(Env env) {
+        var player = env.createPlayer(env.createFlatInstance(), new Pos(0, 64, 0));
+        var request = new BungeeRequest.PlayerCount("lobby");
+        var response = new BungeeResponse.PlayerCount("lobby", 5).toClientPacket().data();
+        var before = Freight.metrics().snapshot().traffic().get("PlayerCount");
+
+        BungeeMessage.send(player.getPlayerConnection(), request);
+        BungeeMessage.broadcast(List.of(player.getPlayerConnection(), player.getPlayerConnection()), request);
+        Freight.eventNode().call(new PlayerPluginMessageEvent(player, "BungeeCord", response));
+
+        var after = Freight.metrics().snapshot().traffic().get("PlayerCount");
+        assertEquals(3, after.messagesOut() - before.messagesOut(), "Messages are counted per connection");
+        assertEquals(3L * BungeeMessage.writeRequest(request).length, after.bytesOut() - before.bytesOut());
+        assertEquals(1, after.messagesIn() - before.messagesIn());
+        assertEquals(response.length, after.bytesIn() - before.bytesIn());
+    }
+
+    @Test
+    void testDecodeFailures() {
+        var before = Freight.metrics().snapshot().decodeFailures();
+        var malformed = NetworkBuffer.makeArray(buffer -> {
+            buffer.write(NetworkBuffer.STRING_IO_UTF8, "GetServer");
+            buffer.write(NetworkBuffer.STRING_IO_UTF8, "lobby");
+            buffer.write(NetworkBuffer.INT, 42);
+        });
+        assertThrows(IllegalStateException.class, () -> BungeeMessage.readResponse(malformed));
+        assertEquals(1, Freight.metrics().snapshot().decodeFailures() - before);
+    }
+
+    @Test
+    void testRoundTrips(Env env) {
+        try (var client = BungeeClient.create()) {
+            env.process().eventHandler().addChild(client.eventNode());
+            var player = env.createPlayer(env.createFlatInstance(), new Pos(0, 64, 0));
+            var before = Freight.metrics().snapshot();
+            var future = client.request(player, new BungeeRequest.GetServer());
+            assertEquals(1, Freight.metrics().snapshot().pendingQueries() - before.pendingQueries());
+
+            player.addPacketToQueue(new BungeeResponse.GetServer("lobby").toClientPacket());
+            player.tick(0);
+            future.join();
+            var after = Freight.metrics().snapshot();
+            assertEquals(before.pendingQueries(), after.pendingQueries());
+            assertEquals(1, after.traffic().get("GetServer").roundTrips().count()
+                    - before.traffic().get("GetServer").roundTrips().count());
+        }
+    }
+
+    @Test
+    void testHistogramBounds() {
+        assertEquals(1_000, Metrics.Histogram.upperBoundNanos(0));
+        assertEquals(2_000, Metrics.Histogram.upperBoundNanos(1));
+        assertEquals(Long.MAX_VALUE, Metrics.Histogram.upperBoundNanos(Metrics.Histogram.BUCKETS - 1));
+        assertThrows(IllegalArgumentException.class, () -> new Metrics.Histogram(new long[3]));
+    }
+}
@@ -0,0 +1,136 @@
+package dev.kerman.freight.test;
+
+import dev.kerman.freight.BungeeClient;
+import dev.kerman.freight.BungeeMessage;
+import dev.kerman.freight.BungeeRequest;
+import dev.kerman.freight.Freight;
+import dev.kerman.freight.RateLimiter;
+import net.minestom.server.coordinate.Pos;
+import net.minestom.server.network.packet.server.common.PluginMessagePacket;
+import net.minestom.testing.Env;
+import net.minestom.testing.EnvTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@EnvTest
+public final class RateLimiterTest {
+
+    @AfterEach
+    void reset() {
+        Freight.rateLimiter(null);
+    }
+
+    @Test
+    void testDropOldest(Env env) {
+        var limiter = RateLimiter.builder().rate(0.001).burst(2).queueSize(2).build();
+        Freight.rateLimiter(limiter);
+        var connection = env.createConnection();
+        var player = connection.connect(env.createFlatInstance(), new Pos(0, 64, 0));
+        var tracker = connection.trackIncoming(PluginMessagePacket.class);
+        for (int i = 0; i < 5; i++) BungeeMessage.send(player.getPlayerConnection(), new BungeeRequest.Forward("server" + i, "state", new byte[0]));
+        assertEquals(2, tracker.collect().size(), "Only the burst should be sent right away");
+        assertEquals(2, limiter.queued(player.getPlayerConnection()));
+        assertEquals(2, limiter.queued());
+        assertEquals(1, limiter.dropped());
+    }
+
+    @Test
+    void testReject(Env env) {
+        var limiter = RateLimiter.builder().rate(0.001).burst(1).queueSize(1).overflow(RateLimiter.Overflow.REJECT).build();
+        Freight.rateLimiter(limiter);
+        var player = env.createPlayer(env.createFlatInstance(), new Pos(0, 64, 0));
+        for (int i = 0; i < 3; i++) BungeeMessage.send(player.getPlayerConnection(), new BungeeRequest.Forward("server" + i, "state", new byte[0]));
+        assertEquals(1, limiter.queued());
+        assertEquals(1, limiter.rejected());
+        assertEquals(0, limiter.dropped());
+    }
+
+    @Test
+    void testCoalesce(Env env) {
+        var limiter = RateLimiter.builder().rate(0.001).burst(1).overflow(RateLimiter.Overflow.COALESCE).build();
+        Freight.rateLimiter(limiter);
+        var player = env.createPlayer(env.createFlatInstance(), new Pos(0, 64, 0));
+        for (int i = 0; i < 3; i++)
+            BungeeMessage.send(player.getPlayerConnection(), new BungeeRequest.Forward("game", "state", new byte[]{(byte) i}));
+        BungeeMessage.send(player.getPlayerConnection(), new BungeeRequest.Forward("game", "score", new byte[0]));
+        assertEquals(2, limiter.queued(), "Forwards to the same destination and channel should replace each other");
+        assertEquals(1, limiter.coalesced());
+    }
+
+    @Test
+    void testForwardsMakeRoomFirst(Env env) {
+        for (var overflow : RateLimiter.Overflow.values()) {
+            var limiter = RateLimiter.builder().rate(0.001).burst(1).queueSize(4).overflow(overflow).build();
+            Freight.rateLimiter(limiter);
+            var player = env.createPlayer(env.createFlatInstance(), new Pos(0, 64, 0));
+            for (int i = 0; i < 4; i++) BungeeMessage.send(player.getPlayerConnection(), new BungeeRequest.IP());
+            BungeeMessage.send(player.getPlayerConnection(), new BungeeRequest.Forward("game", "state", new byte[0]));
+            BungeeMessage.send(player.getPlayerConnection(), new BungeeRequest.Forward("lobby", "state", new byte[0]));
+            assertEquals(4, limiter.queued(), overflow + " should keep the queue bounded");
+            assertEquals(0, limiter.coalesced(), overflow + " should never coalesce equal queries");
+            assertEquals(1, limiter.dropped() + limiter.rejected(), overflow + " should only drop a forward while one is queued");
+            Freight.rateLimiter(null);
+        }
+    }
+
+    @Test
+    void testDroppedQueriesFail(Env env) {
+        for (var overflow : RateLimiter.Overflow.values()) {
+            Freight.rateLimiter(RateLimiter.builder().rate(0.001).burst(1).queueSize(1).overflow(overflow).build());
+            try (var client = BungeeClient.create()) {
+                var player = env.createPlayer(env.createFlatInstance(), new Pos(0, 64, 0));
+                var sent = client.request(player, new BungeeRequest.IP());
+                var queued = client.request(player, new BungeeRequest.UUID());
+                var over = client.request(player, new BungeeRequest.PlayerCount("lobby"));
+                var failed = overflow == RateLimiter.Overflow.REJECT ? over : queued;
+                var exception = assertThrows(CompletionException.class, failed::join);
+                assertInstanceOf(IllegalStateException.class, exception.getCause(), overflow + " should fail the query it gives up on");
+                assertFalse(sent.isDone());
+                assertFalse((failed == over ? queued : over).isDone());
+                assertEquals(2, client.pending());
+            }
+            Freight.rateLimiter(null);
+        }
+    }
+
+    @Test
+    void testReplaceHandsOver(Env env) {
+        var first = RateLimiter.builder().rate(0.001).burst(1).build();
+        Freight.rateLimiter(first);
+        var connection = env.createConnection();
+        var player = connection.connect(env.createFlatInstance(), new Pos(0, 64, 0));
+        var tracker = connection.trackIncoming(PluginMessagePacket.class);
+        for (int i = 0; i < 3; i++) BungeeMessage.send(player.getPlayerConnection(), new BungeeRequest.PlayerCount("server" + i));
+        assertEquals(2, first.queued());
+
+        var second = RateLimiter.builder().rate(0.001).burst(1).build();
+        Freight.rateLimiter(second);
+        assertEquals(0, first.queued(), "Queued messages should leave the closed limiter");
+        assertEquals(1, second.queued(), "Queued messages should be handed over to the new limiter, which has a token left");
+        assertThrows(IllegalArgumentException.class, () -> Freight.rateLimiter(first));
+
+        Freight.rateLimiter(null);
+        assertEquals(0, second.queued());
+        assertEquals(3, tracker.collect().size(), "Queued messages should be sent once rate limiting is disabled");
+    }
+
+    @Test
+    void testRefill(Env env) throws InterruptedException {
+        var limiter = RateLimiter.builder().rate(100).burst(1).build();
+        Freight.rateLimiter(limiter);
+        var connection = env.createConnection();
+        var player = connection.connect(env.createFlatInstance(), new Pos(0, 64, 0));
+        var tracker = connection.trackIncoming(PluginMessagePacket.class);
+        for (int i = 0; i < 3; i++) BungeeMessage.send(player.getPlayerConnection(), new BungeeRequest.PlayerCount("server" + i));
+        for (int i = 0; i < 100 && limiter.queued() > 0; i++) Thread.sleep(10);
+        assertEquals(0, limiter.queued(), "Queued messages should be sent as tokens come back");
+        assertEquals(3, tracker.collect().size());
+    }
+}
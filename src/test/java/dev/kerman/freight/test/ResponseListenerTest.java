@@ -0,0 +1,95 @@
+package dev.kerman.freight.test;
+
+import dev.kerman.freight.BungeeMessage;
+import dev.kerman.freight.BungeeResponse;
+import dev.kerman.freight.ForwardBatcher;
+import dev.kerman.freight.Freight;
+import net.minestom.server.coordinate.Pos;
+import net.minestom.server.entity.Player;
+import net.minestom.server.event.player.PlayerPluginMessageEvent;
+import net.minestom.server.network.NetworkBuffer;
+import net.minestom.testing.Env;
+import net.minestom.testing.EnvTest;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@EnvTest
+public final class ResponseListenerTest {
+
+    private static void receive(Player player, byte[] message) {
+        Freight.eventNode().call(new PlayerPluginMessageEvent(player, "BungeeCord", message));
+    }
+
+    @Test
+    void testListen(Env env) {
+        var player = env.createPlayer(env.createFlatInstance(), new Pos(0, 64, 0));
+        List<BungeeResponse.PlayerCount> counts = new ArrayList<>();
+        List<BungeeResponse.PlayerCount> others = new ArrayList<>();
+        BiConsumer<Player, BungeeResponse.PlayerCount> listener = (_, response) -> counts.add(response);
+        BiConsumer<Player, BungeeResponse> other = (_, response) -> others.add((BungeeResponse.PlayerCount) response);
+        Freight.listen(BungeeResponse.PlayerCount.class, listener);
+        Freight.listen(BungeeResponse.PlayerCount.class, other);
+        try {
+            var lobby = new BungeeResponse.PlayerCount("lobby", 5);
+            receive(player, lobby.toClientPacket().data());
+            receive(player, new BungeeResponse.GetServer("lobby").toClientPacket().data());
+            assertEquals(List.of(lobby), counts);
+            assertEquals(List.of(lobby), others);
+
+            assertTrue(Freight.unlisten(BungeeResponse.PlayerCount.class, listener));
+            assertFalse(Freight.unlisten(BungeeResponse.PlayerCount.class, listener));
+            receive(player, lobby.toClientPacket().data());
+            assertEquals(1, counts.size(), "Removed listeners should not be called");
+            assertEquals(2, others.size());
+        } finally {
+            Freight.unlisten(BungeeResponse.PlayerCount.class, listener);
+            Freight.unlisten(BungeeResponse.PlayerCount.class, other);
+        }
+    }
+
+    @Test
+    void testUnpacksEnvelopes(Env env) {
+        var player = env.createPlayer(env.createFlatInstance(), new Pos(0, 64, 0));
+        List<BungeeResponse.Forward> forwards = new ArrayList<>();
+        BiConsumer<Player, BungeeResponse.Forward> listener = (_, forward) -> forwards.add(forward);
+        Freight.listen(BungeeResponse.Forward.class, listener);
+        try {
+            var score = new BungeeResponse.Forward("score", new byte[]{1});
+            var kill = new BungeeResponse.Forward("kill", new byte[]{2});
+            var envelope = NetworkBuffer.makeArray(buffer -> {
+                buffer.write(BungeeResponse.Forward.SERIALIZER, score);
+                buffer.write(BungeeResponse.Forward.SERIALIZER, kill);
+            });
+            receive(player, BungeeMessage.writeResponse(new BungeeResponse.Forward(ForwardBatcher.ENVELOPE_CHANNEL, envelope)));
+            assertEquals(List.of(score, kill), forwards, "Envelopes should reach listeners as their forwards");
+        } finally {
+            Freight.unlisten(BungeeResponse.Forward.class, listener);
+        }
+    }
+
+    @Test
+    void testSkipsUnlistened(Env env) {
+        var player = env.createPlayer(env.createFlatInstance(), new Pos(0, 64, 0));
+        // A UUID tag followed by a body which isn't a UUID, never decoded since nobody listens to it
+        var malformed = NetworkBuffer.makeArray(buffer -> {
+            buffer.write(NetworkBuffer.STRING_IO_UTF8, "UUID");
+            buffer.write(NetworkBuffer.INT, 42);
+        });
+        assertDoesNotThrow(() -> receive(player, malformed));
+    }
+
+    @Test
+    void testUnknownType() {
+        assertThrows(IllegalArgumentException.class, () -> Freight.listen(BungeeResponse.class, (_, _) -> {
+        }));
+    }
+}
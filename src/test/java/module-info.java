@@ -1,5 +1,7 @@
 module dev.kerman.freight.test {
     requires dev.kerman.freight;
+    requires jdk.jfr;
+    requires jdk.management;
 
     requires net.minestom.server;
     requires net.minestom.testing;